@@ -29,6 +29,13 @@ public interface Attributes {
    */
   String SOURCE = "src";
 
+  /**
+   * Scoped attribute, used by {@code <style>} elements. If present, the stylesheet's
+   * rules only apply to the style element's parent and its descendants.
+   * @see StyleElement
+   */
+  String SCOPED = "scoped";
+
   /**
    * Option name attribute, used during parsing by the {@code <option>} element.
    */
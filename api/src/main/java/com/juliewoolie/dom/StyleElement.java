@@ -14,6 +14,11 @@ import org.jetbrains.annotations.Nullable;
  * If the {@link Attributes#SOURCE} is not set, then the element's text content will be parsed
  * as a stylesheet, and changes to the element's content will cause the stylesheet to be parsed
  * again.
+ * <p>
+ * Style elements are normally only loaded when they're in the document's header. If
+ * the {@link Attributes#SCOPED} attribute is set when the element is added, it can also
+ * be placed anywhere in the body, and the stylesheet's rules will then only apply to
+ * the element's parent and the parent's descendants.
  *
  * @see Stylesheet
  * @see TagNames#STYLE
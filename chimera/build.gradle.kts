@@ -1,5 +1,6 @@
 plugins {
   java
+  id("me.champeau.jmh") version "0.7.2"
 }
 
 version = "1.1.2-SNAPSHOT"
@@ -11,4 +12,21 @@ repositories {
 dependencies {
   compileOnly(project(":api"))
   testImplementation(project(":api"))
-}
\ No newline at end of file
+
+  // Benchmarks run outside the server, so the compile only dependencies
+  // have to be on their classpath
+  jmhImplementation(project(":api"))
+  jmhImplementation("io.papermc.paper:paper-api:1.21.7-R0.1-SNAPSHOT")
+}
+
+// The compile benchmark runs the syntax test sheets
+sourceSets.named("jmh") {
+  resources.srcDir("src/test/resources")
+}
+
+jmh {
+  // Run a single benchmark class with: -PjmhInclude=SheetCompileBenchmark
+  if (project.hasProperty("jmhInclude")) {
+    includes.add(project.property("jmhInclude").toString())
+  }
+}
@@ -0,0 +1,144 @@
+package com.juliewoolie.chimera.parse;
+
+import com.juliewoolie.chimera.parse.ast.SheetStatement;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Executing the syntax test sheets with the tree walking interpreter,
+// compared to executing the same sheets compiled by SheetCompiler
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SheetCompileBenchmark {
+
+  static final String SHEET_DIR = "syntax-tests/";
+
+  private final List<Sheet> sheets = new ArrayList<>();
+
+  @Setup
+  public void setup() throws IOException, URISyntaxException {
+    for (String source : loadSheets()) {
+      ChimeraParser parser = new ChimeraParser(source);
+      SheetStatement statement = parser.stylesheet();
+      ChimeraContext context = parser.createContext();
+      SheetCompiler.CompiledSheet compiled = new SheetCompiler(context).compile(statement);
+
+      // A sheet that doesn't compile cleanly would measure error recovery
+      // instead of the happy path
+      List<ChimeraError> errors = parser.getErrors().getErrors();
+      if (!errors.isEmpty()) {
+        throw new IllegalStateException(
+            "Benchmark sheet failed to compile: " + errors.getFirst().getFormattedError()
+        );
+      }
+
+      sheets.add(new Sheet(statement, context, compiled));
+    }
+  }
+
+  // Executing the sheets logs their @debug and @assert output, drop it so
+  // it doesn't pile up over the run
+  @TearDown(Level.Iteration)
+  public void clearOutput() {
+    for (Sheet sheet : sheets) {
+      sheet.context.getErrors().getErrors().clear();
+    }
+  }
+
+  @Benchmark
+  public void interpret(Blackhole bh) {
+    for (Sheet sheet : sheets) {
+      Interpreter interpreter = new Interpreter(
+          sheet.context,
+          com.juliewoolie.chimera.parse.Scope.createTopLevel()
+      );
+
+      bh.consume(interpreter.sheet(sheet.statement));
+    }
+  }
+
+  @Benchmark
+  public void compileAndExecute(Blackhole bh) {
+    for (Sheet sheet : sheets) {
+      bh.consume(new SheetCompiler(sheet.context).compile(sheet.statement).execute());
+    }
+  }
+
+  @Benchmark
+  public void executeCompiled(Blackhole bh) {
+    for (Sheet sheet : sheets) {
+      bh.consume(sheet.compiled.execute());
+    }
+  }
+
+  // Same sheets SheetCompilerTest runs, the test resources are added to the
+  // jmh source set. They're packed in the benchmark jar, so the jar has to
+  // be opened before the directory can be walked
+  static List<String> loadSheets() throws IOException, URISyntaxException {
+    URI uri = SheetCompileBenchmark.class.getClassLoader().getResource(SHEET_DIR).toURI();
+
+    if (!uri.getScheme().equals("jar")) {
+      return loadSheets(Path.of(uri));
+    }
+
+    try (FileSystem fs = FileSystems.newFileSystem(uri, Map.of())) {
+      return loadSheets(fs.provider().getPath(uri));
+    }
+  }
+
+  private static List<String> loadSheets(Path dir) throws IOException {
+    List<String> sources = new ArrayList<>();
+
+    try (Stream<Path> stream = Files.walk(dir)) {
+      List<Path> paths = stream
+          .filter(path -> path.toString().endsWith(".test.scss"))
+          .sorted()
+          .toList();
+
+      for (Path path : paths) {
+        sources.add(Files.readString(path, StandardCharsets.UTF_8));
+      }
+    }
+
+    if (sources.isEmpty()) {
+      throw new IllegalStateException("No benchmark sheets found in " + dir);
+    }
+
+    return sources;
+  }
+
+  private record Sheet(
+      SheetStatement statement,
+      ChimeraContext context,
+      SheetCompiler.CompiledSheet compiled
+  ) {
+
+  }
+}
@@ -4,6 +4,7 @@ import com.google.common.base.Strings;
 import lombok.Getter;
 import lombok.Setter;
 import com.juliewoolie.chimera.PropertySet.PropertyIterator;
+import com.juliewoolie.chimera.system.DefaultStyleTable;
 import com.juliewoolie.dom.style.Stylesheet;
 
 public class ChimeraStylesheet implements Stylesheet {
@@ -18,6 +19,10 @@ public class ChimeraStylesheet implements Stylesheet {
   @Setter
   private String source;
 
+  // Only built for sheets used as a document's default stylesheet
+  @Setter @Getter
+  private DefaultStyleTable defaultStyleTable;
+
   public ChimeraStylesheet(Rule[] rules) {
     this.rules = rules;
 
@@ -26,6 +31,31 @@ public class ChimeraStylesheet implements Stylesheet {
     }
   }
 
+  // Copies the rules and their values, so the copy can be edited (by the
+  // devtools for example) without affecting this sheet
+  public ChimeraStylesheet copy() {
+    Rule[] copied = new Rule[rules.length];
+
+    for (int i = 0; i < rules.length; i++) {
+      Rule rule = rules[i];
+      PropertySet set = new PropertySet();
+
+      PropertyIterator it = rule.getPropertySet().iterator();
+      while (it.hasNext()) {
+        it.next();
+        set.setValue(it.property(), it.value().copy());
+      }
+
+      copied[i] = new Rule(rule.getSelectorObject(), set, rule.getCompiled());
+    }
+
+    ChimeraStylesheet sheet = new ChimeraStylesheet(copied);
+    sheet.flags = flags;
+    sheet.source = source;
+
+    return sheet;
+  }
+
   @Override
   public String getSource() {
     if (Strings.isNullOrEmpty(this.source)) {
@@ -373,6 +373,33 @@ public class ComputedStyleSet {
     }
   }
 
+  // Same as putAll, except cascading values missing from the set are
+  // taken from the inherited set
+  public void putAll(PropertySet set, PropertySet inherited) {
+    putAll(set);
+
+    if (inherited.size() < 1) {
+      return;
+    }
+
+    color = getExplicit(pick(set, inherited, COLOR), COLOR);
+    textShadow = getExplicit(pick(set, inherited, TEXT_SHADOW), TEXT_SHADOW);
+    bold = getExplicit(pick(set, inherited, BOLD), BOLD);
+    italic = getExplicit(pick(set, inherited, ITALIC), ITALIC);
+    underlined = getExplicit(pick(set, inherited, UNDERLINED), UNDERLINED);
+    strikethrough = getExplicit(pick(set, inherited, STRIKETHROUGH), STRIKETHROUGH);
+    obfuscated = getExplicit(pick(set, inherited, OBFUSCATED), OBFUSCATED);
+    display = getExplicit(pick(set, inherited, DISPLAY), DISPLAY);
+    zindex = getExplicit(pick(set, inherited, Z_INDEX), Z_INDEX);
+
+    fontSize = getPrimitive(pick(set, inherited, FONT_SIZE), FONT_SIZE);
+    flexBasis = getPrimitive(pick(set, inherited, FLEX_BASIS), FLEX_BASIS);
+  }
+
+  private static PropertySet pick(PropertySet set, PropertySet inherited, Property<?> property) {
+    return set.has(property) ? set : inherited;
+  }
+
   private static ValueOrAuto getPrimitive(PropertySet set, Property<Primitive> property) {
     Value<Primitive> v = set.orNull(property);
 
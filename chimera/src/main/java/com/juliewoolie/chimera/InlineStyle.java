@@ -1,7 +1,6 @@
 package com.juliewoolie.chimera;
 
 import com.juliewoolie.chimera.system.ElementStyleNode;
-import com.juliewoolie.dom.Attributes;
 import com.juliewoolie.dom.Element;
 
 public class InlineStyle extends PropertiesMap {
@@ -22,10 +21,7 @@ public class InlineStyle extends PropertiesMap {
       return this;
     }
 
-    node.setSuppressingInlineUpdates(true);
-    element.setAttribute(Attributes.STYLE, set.toParseString());
-    node.setSuppressingInlineUpdates(false);
-
+    node.inlineStyleChanged();
     return this;
   }
 }
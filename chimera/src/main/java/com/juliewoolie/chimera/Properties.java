@@ -356,6 +356,7 @@ public final class Properties {
       .defaultValue(0)
       .cascading(true)
       .layoutAffecting(false)
+      .visualAffecting(true)
       .build();
 
   public static final Property<AlignItems> ALIGN_ITEMS = Property.builder(AlignItems.class)
@@ -14,6 +14,9 @@ public final class Property<T> {
   private final int dirtyBits;
   private final PropertyValidator<T> validator;
 
+  // Shared value returned for properties missing from a set
+  private final Value<T> defaultStyleValue;
+
   int id = -1;
   String key;
 
@@ -34,6 +37,7 @@ public final class Property<T> {
     this.defaultValue = defaultValue;
     this.cascading = cascading;
     this.validator = validator;
+    this.defaultStyleValue = Value.create(defaultValue);
 
     int m = 0;
 
@@ -10,36 +10,62 @@ public final class PropertySet {
 
   private Value[] values;
 
+  // Bit mask of the property IDs present in 'values', lets iteration skip
+  // straight to set properties
+  private long[] present;
+
   private boolean isEmpty() {
-    if (values == null || values.length < 1) {
+    if (present == null) {
       return true;
     }
 
-    for (Object ruleValue : values) {
-      if (ruleValue == null) {
-        continue;
+    for (long word : present) {
+      if (word != 0) {
+        return false;
       }
-
-      return false;
     }
 
     return true;
   }
 
   public int setAll(PropertySet from) {
-    int maxProperty = Math.max(this.length(), from.length());
+    int words = Math.max(this.wordCount(), from.wordCount());
 
-    if (maxProperty < 1) {
+    if (words < 1) {
       return 0;
     }
 
     int dirtyBits = 0;
 
-    for (int i = 0; i < maxProperty; i++) {
-      Property<Object> property = Properties.getById(i);
-      Value<Object> fromValue = from.orNull(property);
+    // Only properties set in either of the sets can change
+    for (int w = 0; w < words; w++) {
+      long bits = this.word(w) | from.word(w);
+
+      while (bits != 0) {
+        int id = (w << 6) + Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+
+        Property<Object> property = Properties.getById(id);
+        Value<Object> fromValue = from.valueAt(id);
+
+        if (!setValue(property, fromValue)) {
+          continue;
+        }
+
+        dirtyBits |= property.getDirtyBits();
+      }
+    }
+
+    return dirtyBits;
+  }
+
+  public int putAll(PropertySet from) {
+    int dirtyBits = 0;
+
+    for (int id = from.nextId(0); id >= 0; id = from.nextId(id + 1)) {
+      Property<Object> property = Properties.getById(id);
 
-      if (!setValue(property, fromValue)) {
+      if (!setValue(property, from.valueAt(id))) {
         continue;
       }
 
@@ -49,29 +75,72 @@ public final class PropertySet {
     return dirtyBits;
   }
 
-  public int putAll(PropertySet from) {
-    PropertyIterator it = from.iterator();
+  // Puts copies of the other set's values, so the sets don't share
+  // mutable value instances
+  public int putAllCopies(PropertySet from) {
     int dirtyBits = 0;
 
-    while (it.hasNext()) {
-      it.next();
-      if (!setValue(it.property(), it.value())) {
+    for (int id = from.nextId(0); id >= 0; id = from.nextId(id + 1)) {
+      Property<Object> property = Properties.getById(id);
+      Value<Object> value = from.valueAt(id);
+
+      if (!setValue(property, value.copy())) {
         continue;
       }
 
-      dirtyBits |= it.property().getDirtyBits();
+      dirtyBits |= property.getDirtyBits();
     }
 
     return dirtyBits;
   }
 
+  // Returns the lowest ID of a set property that's >= 'from', or -1, if
+  // there are none
+  public int nextId(int from) {
+    if (present == null || from < 0) {
+      return -1;
+    }
+
+    int w = from >> 6;
+    if (w >= present.length) {
+      return -1;
+    }
+
+    long bits = present[w] & (-1L << from);
+
+    while (true) {
+      if (bits != 0) {
+        return (w << 6) + Long.numberOfTrailingZeros(bits);
+      }
+
+      w++;
+
+      if (w >= present.length) {
+        return -1;
+      }
+
+      bits = present[w];
+    }
+  }
+
+  // Value of a property ID returned by nextId
+  public <T> Value<T> valueAt(int id) {
+    if (values == null || id >= values.length) {
+      return null;
+    }
+
+    return values[id];
+  }
+
   public <T> boolean has(Property<T> property) {
-    if (values == null || values.length <= property.id) {
+    int id = property.id;
+    int w = id >> 6;
+
+    if (present == null || w >= present.length) {
       return false;
     }
 
-    T v = (T) values[property.id];
-    return v != null;
+    return (present[w] & (1L << id)) != 0;
   }
 
   public <T> T getValue(Property<T> property) {
@@ -84,7 +153,11 @@ public final class PropertySet {
   }
 
   public <T> Value<T> get(Property<T> property) {
-    return orElse(property, property.getDefaultValue());
+    if (!has(property)) {
+      return property.getDefaultStyleValue();
+    }
+
+    return (Value<T>) values[property.id];
   }
 
   public <T> Value<T> orNull(Property<T> property) {
@@ -117,13 +190,14 @@ public final class PropertySet {
       return remove(property);
     }
 
+    // Sized to the highest set ID, most sets only hold a few properties
     if (values == null) {
       values = new Value[id + 1];
-      values[id] = value;
-      return true;
+    } else {
+      values = ObjectArrays.ensureCapacity(values, id + 1);
     }
 
-    values = ObjectArrays.ensureCapacity(values, id + 1);
+    markPresent(id);
 
     Object current = values[id];
     values[id] = value;
@@ -136,10 +210,37 @@ public final class PropertySet {
       return false;
     }
 
-    values[property.id] = null;
+    int id = property.id;
+    values[id] = null;
+    present[id >> 6] &= ~(1L << id);
+
     return true;
   }
 
+  private void markPresent(int id) {
+    int w = id >> 6;
+
+    if (present == null) {
+      present = new long[w + 1];
+    } else if (w >= present.length) {
+      present = Arrays.copyOf(present, w + 1);
+    }
+
+    present[w] |= 1L << id;
+  }
+
+  private int wordCount() {
+    return present == null ? 0 : present.length;
+  }
+
+  private long word(int w) {
+    if (present == null || w >= present.length) {
+      return 0L;
+    }
+
+    return present[w];
+  }
+
   public String toParseString() {
     PropertyIterator it = iterator();
 
@@ -174,20 +275,15 @@ public final class PropertySet {
     builder.append(getClass().getSimpleName());
     builder.append("[");
 
-    if (values == null || values.length < 1) {
+    if (isEmpty()) {
       builder.append("]");
       return builder.toString();
     }
 
     boolean anyPrinted = false;
 
-    for (int i = 0; i < values.length; i++) {
+    for (int i = nextId(0); i >= 0; i = nextId(i + 1)) {
       Value<Object> v = values[i];
-
-      if (v == null) {
-        continue;
-      }
-
       Property<Object> r = Properties.getById(i);
 
       if (r == null) {
@@ -210,11 +306,15 @@ public final class PropertySet {
   }
 
   public void clear() {
-    if (values == null || values.length < 1) {
+    if (present == null) {
       return;
     }
 
-    Arrays.fill(values, null);
+    for (int i = nextId(0); i >= 0; i = nextId(i + 1)) {
+      values[i] = null;
+    }
+
+    Arrays.fill(present, 0L);
   }
 
   @Override
@@ -235,15 +335,16 @@ public final class PropertySet {
       return false;
     }
 
-    int slen = this.length();
-    int olen = rset.length();
-    int max = Math.max(slen, olen);
+    int words = Math.max(this.wordCount(), rset.wordCount());
 
-    for (int i = 0; i < max; i++) {
-      Object self = this.safeGet(i);
-      Object other = rset.safeGet(i);
+    for (int w = 0; w < words; w++) {
+      if (this.word(w) != rset.word(w)) {
+        return false;
+      }
+    }
 
-      if (!Objects.equals(self, other)) {
+    for (int i = nextId(0); i >= 0; i = nextId(i + 1)) {
+      if (!Objects.equals(values[i], rset.values[i])) {
         return false;
       }
     }
@@ -251,35 +352,18 @@ public final class PropertySet {
     return true;
   }
 
-  private int length() {
-    return values == null ? 0 : values.length;
-  }
-
-  private Object safeGet(int i) {
-    if (values == null) {
-      return null;
-    }
-    if (i < 0 || i >= values.length) {
-      return null;
-    }
-    return values[i];
-  }
-
   public PropertyIterator iterator() {
     return new PropertyIterator();
   }
 
   public int size() {
-    if (values == null) {
+    if (present == null) {
       return 0;
     }
 
     int l = 0;
-    for (Value value : values) {
-      if (value == null) {
-        continue;
-      }
-      l++;
+    for (long word : present) {
+      l += Long.bitCount(word);
     }
 
     return l;
@@ -291,22 +375,8 @@ public final class PropertySet {
     int currentId = -1;
 
     public boolean hasNext() {
-      if (values == null) {
-        return false;
-      }
-
-      while (index < values.length) {
-        Object o = values[index];
-
-        if (o == null) {
-          index++;
-          continue;
-        }
-
-        return true;
-      }
-
-      return false;
+      index = nextId(index);
+      return index >= 0;
     }
 
     public void next() {
@@ -18,8 +18,12 @@ public class ReadonlyProperties implements StylePropertiesReadonly {
     this.set = set;
   }
 
+  protected <T> Value<T> lookup(Property<T> prop) {
+    return set.orNull(prop);
+  }
+
   private <T> String get(Property<T> prop) {
-    Value<T> value = set.orNull(prop);
+    Value<T> value = lookup(prop);
 
     if (value == null) {
       return null;
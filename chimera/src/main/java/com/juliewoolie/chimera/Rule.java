@@ -1,8 +1,11 @@
 package com.juliewoolie.chimera;
 
+import java.util.function.Predicate;
 import lombok.Getter;
 import com.juliewoolie.chimera.selector.Selector;
+import com.juliewoolie.chimera.selector.SelectorCompiler;
 import com.juliewoolie.chimera.selector.Spec;
+import com.juliewoolie.dom.Element;
 import com.juliewoolie.dom.style.StylePropertiesReadonly;
 import com.juliewoolie.dom.style.StyleRule;
 import org.jetbrains.annotations.NotNull;
@@ -19,8 +22,19 @@ public class Rule implements StyleRule, Comparable<Rule> {
 
   ChimeraStylesheet stylesheet;
 
+  // Compiled when the rule is created, rules are shared between threads
+  // (through the stylesheet cache), so there's no mutable state here
+  private final Predicate<Element> compiled;
+
   public Rule(Selector selector, PropertySet properties) {
+    this(selector, properties, SelectorCompiler.compile(selector));
+  }
+
+  // Used by stylesheet copies, which keep the original's selector and
+  // can reuse its compiled matcher
+  Rule(Selector selector, PropertySet properties, Predicate<Element> compiled) {
     this.selector = selector;
+    this.compiled = compiled;
     this.properties = properties;
     this.apiProperties = new ReadonlyProperties(properties);
 
@@ -47,6 +61,14 @@ public class Rule implements StyleRule, Comparable<Rule> {
     return selector;
   }
 
+  public boolean matches(Element element) {
+    return compiled.test(element);
+  }
+
+  Predicate<Element> getCompiled() {
+    return compiled;
+  }
+
   public PropertySet getPropertySet() {
     return properties;
   }
@@ -29,6 +29,16 @@ public class Value<T> {
     return v;
   }
 
+  public Value<T> copy() {
+    Value<T> v = new Value<>();
+    v.textValue = textValue;
+    v.type = type;
+    v.value = value;
+    v.important = important;
+    v.enabled = enabled;
+    return v;
+  }
+
   public enum ValueType {
     INHERIT,
     INITIAL,
@@ -51,7 +51,7 @@ public final class Chimera {
     return expr.compile(errors);
   }
 
-  public static ChimeraStylesheet parseSheet(StringBuffer input, String sourceName) {
+  public static ChimeraStylesheet parseSheet(CharSequence input, String sourceName) {
     return parseSheet(input, sourceName, error -> {
       LoggerFactory.getLogger("Document")
           .atLevel(error.getLevel())
@@ -61,7 +61,7 @@ public final class Chimera {
   }
 
   public static ChimeraStylesheet parseSheet(
-      StringBuffer input,
+      CharSequence input,
       String name,
       CompilerErrorListener listener
   ) {
@@ -79,9 +79,8 @@ public final class Chimera {
   }
 
   public static ChimeraStylesheet compileSheet(SheetStatement stat, ChimeraContext ctx) {
-    Scope scope = Scope.createTopLevel();
-    Interpreter inter = new Interpreter(ctx, scope);
-    return inter.sheet(stat);
+    SheetCompiler compiler = new SheetCompiler(ctx);
+    return compiler.compile(stat).execute();
   }
 
   public static void compileInline(InlineStyleStatement stat, PropertySet out, ChimeraContext ctx) {
@@ -9,21 +9,21 @@ public class ChimeraContext {
 
   private CompilerErrors errors;
 
-  private final StringBuffer input;
+  private final CharSequence input;
 
   private boolean ignoringAsserts = true;
 
-  public ChimeraContext(StringBuffer input) {
+  public ChimeraContext(CharSequence input) {
     this.input = input;
   }
 
   public String getInput(Location location, int len) {
     int idx = location.cursor();
-    return input.substring(idx, idx + len);
+    return input.subSequence(idx, idx + len).toString();
   }
 
   public String getInput(Location start, Location end) {
-    return input.substring(start.cursor(), end.cursor());
+    return input.subSequence(start.cursor(), end.cursor()).toString();
   }
 
   public void warn(Location location, String format, Object... args) {
@@ -130,11 +130,7 @@ public class ChimeraParser {
 
   private final Stack<ParserScope> scopeStack = new Stack<>();
 
-  public ChimeraParser(String buffer) {
-    this(new StringBuffer(buffer));
-  }
-
-  public ChimeraParser(StringBuffer buffer) {
+  public ChimeraParser(CharSequence buffer) {
     this.errors = new CompilerErrors(buffer);
     this.stream = new TokenStream(buffer, errors);
   }
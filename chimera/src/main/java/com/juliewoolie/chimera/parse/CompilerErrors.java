@@ -12,7 +12,7 @@ public class CompilerErrors {
   public static final String UNNAMED = "<unnamed source>";
 
   private final List<ChimeraError> errors = new ArrayList<>();
-  private final StringBuffer input;
+  private final CharSequence input;
 
   @Setter
   private CompilerErrorListener listener;
@@ -20,7 +20,7 @@ public class CompilerErrors {
   @Setter
   private String sourceName;
 
-  public CompilerErrors(StringBuffer input) {
+  public CompilerErrors(CharSequence input) {
     this.input = input;
     this.sourceName = UNNAMED;
   }
@@ -69,7 +69,7 @@ public class CompilerErrors {
     listener.handle(error);
   }
 
-  public String format(StringBuffer input, Location location, String message) {
+  public String format(CharSequence input, Location location, String message) {
     if (location == null) {
       return message;
     }
@@ -84,7 +84,7 @@ public class CompilerErrors {
 
     String lineNumStr = String.valueOf(lineNumber);
     String linePad = " ".repeat(lineNumStr.length());
-    String context = input.substring(lineStart, lineEnd)
+    String context = input.subSequence(lineStart, lineEnd).toString()
         .replace("\n", "")
         .replace("\r", "");
 
@@ -125,7 +125,7 @@ public class CompilerErrors {
     return builder.toString();
   }
 
-  static int findLineBoundary(StringBuffer buf, int pos, int direction) {
+  static int findLineBoundary(CharSequence buf, int pos, int direction) {
     int p = pos + direction;
 
     while (true) {
@@ -388,6 +388,10 @@ public class Interpreter implements NodeVisitor<Object> {
     }
 
     Object o = value.visit(this);
+    return applyUnary(op, o);
+  }
+
+  static Object applyUnary(UnaryOp op, Object o) {
     if (o == null) {
       return null;
     }
@@ -442,6 +446,10 @@ public class Interpreter implements NodeVisitor<Object> {
     Object lv = expr.getLhs().visit(this);
     Object rv = expr.getRhs().visit(this);
 
+    return applyBinary(start, op, lv, rv);
+  }
+
+  Object applyBinary(Location start, BinaryOp op, Object lv, Object rv) {
     return switch (op) {
       case EQUAL -> Objects.equals(lv, rv);
       case NOT_EQUAL -> !Objects.equals(lv, rv);
@@ -700,12 +708,12 @@ public class Interpreter implements NodeVisitor<Object> {
     return scope.getSheetBuilder().build();
   }
 
-  private Selector selectorFromStack() {
+  static Selector selectorFromStack(List<Selector> selectorStack) {
     if (selectorStack.isEmpty()) {
       return Selector.MATCH_ALL;
     }
     if (selectorStack.size() == 1) {
-      return selectorStack.peek();
+      return selectorStack.getFirst();
     }
 
     List<SelectorNode> nodes = new ArrayList<>();
@@ -769,7 +777,7 @@ public class Interpreter implements NodeVisitor<Object> {
 
     selectorStack.push(selector);
 
-    selector = selectorFromStack();
+    selector = selectorFromStack(selectorStack);
 
     PropertySet properties = new PropertySet();
 
@@ -0,0 +1,131 @@
+package com.juliewoolie.chimera.parse;
+
+// Interns identifiers and literals straight from the lexer's input array.
+// Names repeat constantly across sheets and inline styles (property names,
+// units, class names), so after the first time a name is seen, reading it
+// again doesn't allocate a new String. Each thread has its own table, so
+// no locking is needed
+final class NameTable {
+
+  static final int INITIAL_CAPACITY = 256;
+  static final int MAX_SIZE = 4096;
+
+  // Longer strings are mostly one-off literals, like content strings or
+  // data URIs, which would only pin memory and push out the names
+  static final int MAX_LENGTH = 64;
+
+  private static final ThreadLocal<NameTable> TABLE = ThreadLocal.withInitial(NameTable::new);
+
+  private String[] entries = new String[INITIAL_CAPACITY];
+  private int size = 0;
+
+  static NameTable get() {
+    return TABLE.get();
+  }
+
+  String intern(char[] chars, int start, int length) {
+    if (length == 0) {
+      return "";
+    }
+    if (length > MAX_LENGTH) {
+      return new String(chars, start, length);
+    }
+
+    int hash = hash(chars, start, length);
+    int mask = entries.length - 1;
+    int idx = hash & mask;
+
+    String existing;
+    while ((existing = entries[idx]) != null) {
+      if (matches(existing, chars, start, length)) {
+        return existing;
+      }
+
+      idx = (idx + 1) & mask;
+    }
+
+    String created = new String(chars, start, length);
+
+    // Bound memory use, sheets with lots of unique names will just start
+    // from an empty table again
+    if (size >= MAX_SIZE) {
+      clear();
+      insert(created, hash);
+      size++;
+
+      return created;
+    }
+
+    entries[idx] = created;
+    size++;
+
+    if (size * 2 > entries.length) {
+      grow();
+    }
+
+    return created;
+  }
+
+  void clear() {
+    entries = new String[INITIAL_CAPACITY];
+    size = 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  private void grow() {
+    String[] old = entries;
+    entries = new String[old.length * 2];
+
+    for (String s : old) {
+      if (s == null) {
+        continue;
+      }
+
+      insert(s, spread(s.hashCode()));
+    }
+  }
+
+  private void insert(String s, int hash) {
+    int mask = entries.length - 1;
+    int idx = hash & mask;
+
+    while (entries[idx] != null) {
+      idx = (idx + 1) & mask;
+    }
+
+    entries[idx] = s;
+  }
+
+  // Same as String.hashCode, so existing entries can be rehashed without
+  // going back to the char array
+  private static int hash(char[] chars, int start, int length) {
+    int h = 0;
+
+    for (int i = 0; i < length; i++) {
+      h = 31 * h + chars[start + i];
+    }
+
+    return spread(h);
+  }
+
+  private static int spread(int h) {
+    return h ^ (h >>> 16);
+  }
+
+  private static boolean matches(String s, char[] chars, int start, int length) {
+    if (s.length() != length) {
+      return false;
+    }
+
+    for (int i = 0; i < length; i++) {
+      if (s.charAt(i) != chars[start + i]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+}
@@ -0,0 +1,1040 @@
+package com.juliewoolie.chimera.parse;
+
+import static com.juliewoolie.chimera.parse.Chimera.coerceCssValue;
+
+import com.juliewoolie.chimera.ChimeraSheetBuilder;
+import com.juliewoolie.chimera.ChimeraStylesheet;
+import com.juliewoolie.chimera.Properties;
+import com.juliewoolie.chimera.Property;
+import com.juliewoolie.chimera.PropertySet;
+import com.juliewoolie.chimera.Rule;
+import com.juliewoolie.chimera.ScssList;
+import com.juliewoolie.chimera.Value;
+import com.juliewoolie.chimera.function.Argument;
+import com.juliewoolie.chimera.function.ScssFunction;
+import com.juliewoolie.chimera.function.ScssFunctions;
+import com.juliewoolie.chimera.function.ScssInvocationException;
+import com.juliewoolie.chimera.parse.ast.AssertStatement;
+import com.juliewoolie.chimera.parse.ast.BinaryExpr;
+import com.juliewoolie.chimera.parse.ast.BinaryOp;
+import com.juliewoolie.chimera.parse.ast.Block;
+import com.juliewoolie.chimera.parse.ast.CallExpr;
+import com.juliewoolie.chimera.parse.ast.ColorLiteral;
+import com.juliewoolie.chimera.parse.ast.ControlFlowStatement;
+import com.juliewoolie.chimera.parse.ast.ErroneousExpr;
+import com.juliewoolie.chimera.parse.ast.Expression;
+import com.juliewoolie.chimera.parse.ast.ExpressionStatement;
+import com.juliewoolie.chimera.parse.ast.FunctionStatement;
+import com.juliewoolie.chimera.parse.ast.FunctionStatement.FuncParameterStatement;
+import com.juliewoolie.chimera.parse.ast.Identifier;
+import com.juliewoolie.chimera.parse.ast.IfStatement;
+import com.juliewoolie.chimera.parse.ast.ImportStatement;
+import com.juliewoolie.chimera.parse.ast.ImportantMarker;
+import com.juliewoolie.chimera.parse.ast.IncludeStatement;
+import com.juliewoolie.chimera.parse.ast.InlineStyleStatement;
+import com.juliewoolie.chimera.parse.ast.KeywordLiteral;
+import com.juliewoolie.chimera.parse.ast.ListLiteral;
+import com.juliewoolie.chimera.parse.ast.LogStatement;
+import com.juliewoolie.chimera.parse.ast.MixinStatement;
+import com.juliewoolie.chimera.parse.ast.NamespaceExpr;
+import com.juliewoolie.chimera.parse.ast.Node;
+import com.juliewoolie.chimera.parse.ast.NodeVisitor;
+import com.juliewoolie.chimera.parse.ast.NumberLiteral;
+import com.juliewoolie.chimera.parse.ast.PropertyStatement;
+import com.juliewoolie.chimera.parse.ast.RegularSelectorStatement;
+import com.juliewoolie.chimera.parse.ast.RuleStatement;
+import com.juliewoolie.chimera.parse.ast.SelectorExpression;
+import com.juliewoolie.chimera.parse.ast.SelectorExpression.AnbExpr;
+import com.juliewoolie.chimera.parse.ast.SelectorExpression.AttributeExpr;
+import com.juliewoolie.chimera.parse.ast.SelectorExpression.ClassNameExpr;
+import com.juliewoolie.chimera.parse.ast.SelectorExpression.EvenOddKeyword;
+import com.juliewoolie.chimera.parse.ast.SelectorExpression.IdExpr;
+import com.juliewoolie.chimera.parse.ast.SelectorExpression.MatchAllExpr;
+import com.juliewoolie.chimera.parse.ast.SelectorExpression.NestedSelector;
+import com.juliewoolie.chimera.parse.ast.SelectorExpression.PseudoClassExpr;
+import com.juliewoolie.chimera.parse.ast.SelectorExpression.PseudoElementExpr;
+import com.juliewoolie.chimera.parse.ast.SelectorExpression.PseudoFunctionExpr;
+import com.juliewoolie.chimera.parse.ast.SelectorExpression.TagNameExpr;
+import com.juliewoolie.chimera.parse.ast.SelectorListStatement;
+import com.juliewoolie.chimera.parse.ast.SelectorNodeStatement;
+import com.juliewoolie.chimera.parse.ast.SheetStatement;
+import com.juliewoolie.chimera.parse.ast.Statement;
+import com.juliewoolie.chimera.parse.ast.StringLiteral;
+import com.juliewoolie.chimera.parse.ast.UnaryExpr;
+import com.juliewoolie.chimera.parse.ast.UnaryOp;
+import com.juliewoolie.chimera.parse.ast.VariableDecl;
+import com.juliewoolie.chimera.parse.ast.VariableExpr;
+import com.juliewoolie.chimera.selector.Selector;
+import com.juliewoolie.delphi.util.Nothing;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Stack;
+import org.apache.commons.lang3.Range;
+import org.slf4j.event.Level;
+
+// Lowers a parsed sheet into a tree of pre-linked closures, which can then
+// be executed without walking the AST.
+//
+// Variables and mixins are resolved to frame slots before anything runs,
+// a frame is created for the sheet, every rule body and every mixin
+// include, the same places the Interpreter pushes a Scope. Because a
+// variable can only ever be set in a frame that lexically declares it, a
+// lookup only has to check those frames, innermost first.
+//
+// Expressions made only of constants are evaluated once while lowering,
+// as long as evaluating them doesn't output any errors, errors are always
+// reported when the code actually runs, like the Interpreter does.
+public class SheetCompiler implements NodeVisitor<Object> {
+
+  static final String MIXIN_PREFIX = "@";
+
+  private final ChimeraContext context;
+  private final CompilerErrors errors;
+
+  private final Scope topScope = Scope.createTopLevel();
+
+  // Runs the binary operator logic, shared with the Interpreter
+  private final Interpreter interpreter;
+
+  // Used to test if folding a constant expression outputs any errors
+  private final CompilerErrors trialErrors;
+  private final ChimeraContext trialContext;
+  private final Interpreter trialInterpreter;
+
+  private final Map<Node, Layout> layouts = new IdentityHashMap<>();
+  private Layout layout;
+
+  public SheetCompiler(ChimeraContext context) {
+    this.context = context;
+    this.errors = context.getErrors();
+    this.interpreter = new Interpreter(context, topScope);
+
+    this.trialErrors = new CompilerErrors(context.getInput());
+    this.trialContext = new ChimeraContext(context.getInput());
+    this.trialContext.setErrors(trialErrors);
+    this.trialInterpreter = new Interpreter(trialContext, topScope);
+  }
+
+  public CompiledSheet compile(SheetStatement sheet) {
+    Layout sheetLayout = new Layout(null);
+    declare(sheet.getStatements(), sheetLayout);
+
+    layout = sheetLayout;
+    CompiledStatement[] statements = lowerAll(sheet.getStatements());
+
+    return new CompiledSheet(sheetLayout, statements);
+  }
+
+  /* --------------------------- Slot declaration ---------------------------- */
+
+  // Finds every variable and mixin a frame may declare. Control flow
+  // statements don't create frames, so their bodies declare into the
+  // frame they're in
+  private void declare(List<Statement> statements, Layout out) {
+    for (Statement statement : statements) {
+      declare(statement, out);
+    }
+  }
+
+  private void declare(Statement statement, Layout out) {
+    switch (statement) {
+      case VariableDecl decl -> {
+        if (decl.getValue() != null) {
+          out.declare(decl.getName().getValue());
+        }
+      }
+
+      case MixinStatement mixin -> {
+        out.declare(MIXIN_PREFIX + mixin.getName().getValue());
+
+        Layout body = new Layout(out);
+        layouts.put(mixin, body);
+        declare(mixin.getBody().getStatements(), body);
+      }
+
+      case RuleStatement rule -> {
+        Layout body = new Layout(out);
+        layouts.put(rule, body);
+        declare(rule.getBody().getStatements(), body);
+      }
+
+      case IfStatement ifStatement -> {
+        declare(ifStatement.getBody(), out);
+
+        if (ifStatement.getElseBody() != null) {
+          declare(ifStatement.getElseBody(), out);
+        }
+      }
+
+      case Block block -> declare(block.getStatements(), out);
+
+      default -> {
+        // Doesn't declare anything
+      }
+    }
+  }
+
+  private SlotRef resolve(String name) {
+    IntArrayList hops = new IntArrayList();
+    IntArrayList slots = new IntArrayList();
+
+    Layout l = layout;
+    int hop = 0;
+
+    while (l != null) {
+      int slot = l.slots.getInt(name);
+
+      if (slot != -1) {
+        hops.add(hop);
+        slots.add(slot);
+      }
+
+      l = l.parent;
+      hop++;
+    }
+
+    return new SlotRef(hops.toIntArray(), slots.toIntArray());
+  }
+
+  /* --------------------------- Lowering ---------------------------- */
+
+  private CompiledStatement[] lowerAll(List<Statement> statements) {
+    List<CompiledStatement> out = new ArrayList<>(statements.size());
+
+    for (Statement statement : statements) {
+      CompiledStatement compiled = lower(statement);
+
+      if (compiled != null) {
+        out.add(compiled);
+      }
+    }
+
+    return out.toArray(CompiledStatement[]::new);
+  }
+
+  private CompiledStatement lower(Statement statement) {
+    return (CompiledStatement) statement.visit(this);
+  }
+
+  private CompiledExpr lower(Expression expression) {
+    return (CompiledExpr) expression.visit(this);
+  }
+
+  private CompiledStatement lowerBody(Node owner, Block body) {
+    Layout pre = layout;
+    layout = layouts.get(owner);
+
+    try {
+      return new BlockStatement(lowerAll(body.getStatements()));
+    } finally {
+      layout = pre;
+    }
+  }
+
+  private static Constant constant(Object value) {
+    return new Constant(value);
+  }
+
+  private IllegalStateException doNotCall() {
+    return new IllegalStateException("This should not be called");
+  }
+
+  @Override
+  public Object variableExpr(VariableExpr expr) {
+    Identifier variableName = expr.getVariableName();
+
+    if (variableName == null) {
+      return constant(null);
+    }
+
+    String name = variableName.getValue();
+    SlotRef ref = resolve(name);
+    Location start = expr.getStart();
+
+    return (CompiledExpr) frame -> {
+      Object o = ref.get(frame);
+
+      if (o == null) {
+        errors.error(start, "Unknown variable %s", name);
+      }
+
+      return o;
+    };
+  }
+
+  @Override
+  public Object stringLiteral(StringLiteral expr) {
+    return constant(interpreter.stringLiteral(expr));
+  }
+
+  @Override
+  public Object numberLiteral(NumberLiteral expr) {
+    return constant(interpreter.numberLiteral(expr));
+  }
+
+  @Override
+  public Object keywordLiteral(KeywordLiteral expr) {
+    return constant(interpreter.keywordLiteral(expr));
+  }
+
+  @Override
+  public Object inlineStyle(InlineStyleStatement inline) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object identifier(Identifier expr) {
+    return constant(interpreter.identifier(expr));
+  }
+
+  @Override
+  public Object error(ErroneousExpr expr) {
+    return constant(null);
+  }
+
+  @Override
+  public Object colorLiteral(ColorLiteral expr) {
+    return constant(expr.getColor());
+  }
+
+  @Override
+  public Object callExpr(CallExpr expr) {
+    String name = expr.getFunctionName().getValue();
+    ScssFunction func = topScope.getFunction(name);
+    Location start = expr.getStart();
+
+    if (func == null) {
+      return (CompiledExpr) frame -> {
+        errors.error(start, "Unknown function %s", name);
+        return null;
+      };
+    }
+
+    List<Expression> arguments = expr.getArguments();
+    CompiledExpr[] args = new CompiledExpr[arguments.size()];
+    Location[] argStarts = new Location[args.length];
+    Location[] argEnds = new Location[args.length];
+
+    boolean allConstant = true;
+
+    for (int i = 0; i < args.length; i++) {
+      Expression argExpr = arguments.get(i);
+
+      args[i] = lower(argExpr);
+      argStarts[i] = argExpr.getStart();
+      argEnds[i] = argExpr.getEnd();
+
+      allConstant &= args[i] instanceof Constant;
+    }
+
+    Range<Integer> argCount = func.argumentCount();
+    int count = args.length;
+
+    if (count < argCount.getMinimum() || count > argCount.getMaximum()) {
+      return (CompiledExpr) frame -> {
+        for (CompiledExpr arg : args) {
+          arg.eval(frame);
+        }
+
+        if (count < argCount.getMinimum()) {
+          errors.error(start,
+              "Too few arguments! Expected at least %s arguments, found %s",
+              argCount.getMinimum(), count
+          );
+        } else {
+          errors.error(start,
+              "Too many arguments! Expected at most %s arguments, found %s",
+              argCount.getMaximum(), count
+          );
+        }
+
+        return null;
+      };
+    }
+
+    // get-property and set-property depend on the rule they're called in
+    boolean pure = func != ScssFunctions.GET_PROPERTY && func != ScssFunctions.SET_PROPERTY;
+
+    if (pure && allConstant) {
+      Constant folded = foldCall(func, args, argStarts, argEnds);
+
+      if (folded != null) {
+        return folded;
+      }
+    }
+
+    return (CompiledExpr) frame -> {
+      Argument[] argValues = new Argument[args.length];
+
+      for (int i = 0; i < args.length; i++) {
+        Argument arg = new Argument();
+        arg.setArgumentIndex(i);
+        arg.setValue(args[i].eval(frame));
+        arg.setStart(argStarts[i]);
+        arg.setEnd(argEnds[i]);
+        arg.setErrors(errors);
+
+        argValues[i] = arg;
+      }
+
+      Scope scope = frame.run.callScope;
+      scope.setPropertyOutput(frame.propertyOutput);
+
+      try {
+        return func.invoke(context, scope, argValues);
+      } catch (ScssInvocationException exc) {
+        errors.error(exc.getLocation(), "Failed to invoke %s: %s", name, exc.getMessage());
+        return null;
+      }
+    };
+  }
+
+  private Constant foldCall(
+      ScssFunction func,
+      CompiledExpr[] args,
+      Location[] argStarts,
+      Location[] argEnds
+  ) {
+    Argument[] argValues = new Argument[args.length];
+
+    for (int i = 0; i < args.length; i++) {
+      Argument arg = new Argument();
+      arg.setArgumentIndex(i);
+      arg.setValue(((Constant) args[i]).value());
+      arg.setStart(argStarts[i]);
+      arg.setEnd(argEnds[i]);
+      arg.setErrors(trialErrors);
+
+      argValues[i] = arg;
+    }
+
+    trialErrors.getErrors().clear();
+    Object result;
+
+    try {
+      result = func.invoke(trialContext, new Scope(), argValues);
+    } catch (ScssInvocationException | RuntimeException exc) {
+      return null;
+    }
+
+    return foldResult(result);
+  }
+
+  private Constant foldResult(Object result) {
+    // Lists are mutable, so they can't be shared
+    if (!trialErrors.getErrors().isEmpty() || result instanceof ScssList) {
+      trialErrors.getErrors().clear();
+      return null;
+    }
+
+    return constant(result);
+  }
+
+  @Override
+  public Object selector(RegularSelectorStatement selector) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object selectorGroup(SelectorListStatement group) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object selectorMatchAll(MatchAllExpr expr) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object anb(AnbExpr expr) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object evenOdd(EvenOddKeyword expr) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object selectorPseudoFunction(PseudoFunctionExpr expr) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object selectorPseudoClass(PseudoClassExpr expr) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object selectorAttribute(AttributeExpr expr) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object selectorId(IdExpr expr) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object selectorClassName(ClassNameExpr expr) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object selectorTagName(TagNameExpr expr) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object selectorNode(SelectorNodeStatement node) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object selectorNested(NestedSelector selector) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object selectorPseudoElement(PseudoElementExpr selector) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object listLiteral(ListLiteral expr) {
+    List<Expression> values = expr.getValues();
+    CompiledExpr[] compiled = new CompiledExpr[values.size()];
+
+    for (int i = 0; i < compiled.length; i++) {
+      compiled[i] = lower(values.get(i));
+    }
+
+    return (CompiledExpr) frame -> {
+      ScssList list = new ScssList(compiled.length);
+
+      for (CompiledExpr value : compiled) {
+        Object o = value.eval(frame);
+        if (o == null) {
+          continue;
+        }
+
+        list.add(o);
+      }
+
+      return list;
+    };
+  }
+
+  @Override
+  public Object important(ImportantMarker marker) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object unary(UnaryExpr expr) {
+    Expression value = expr.getValue();
+    UnaryOp op = expr.getOp();
+
+    if (value == null) {
+      return constant(null);
+    }
+
+    CompiledExpr compiled = lower(value);
+
+    if (compiled instanceof Constant c && !(c.value() instanceof ScssList)) {
+      return constant(Interpreter.applyUnary(op, c.value()));
+    }
+
+    return (CompiledExpr) frame -> Interpreter.applyUnary(op, compiled.eval(frame));
+  }
+
+  @Override
+  public Object namespaced(NamespaceExpr expr) {
+    // Namespaces are never registered in the top level scope
+    String name = expr.getNamespace().getValue();
+    Location start = expr.getStart();
+    CompiledExpr target = lower(expr.getTarget());
+
+    return (CompiledExpr) frame -> {
+      errors.error(start, "Unknown object %s", name);
+      return target.eval(frame);
+    };
+  }
+
+  @Override
+  public Object binary(BinaryExpr expr) {
+    BinaryOp op = expr.getOp();
+    Location start = expr.getStart();
+
+    CompiledExpr lhs = lower(expr.getLhs());
+    CompiledExpr rhs = lower(expr.getRhs());
+
+    if (lhs instanceof Constant l && rhs instanceof Constant r) {
+      trialErrors.getErrors().clear();
+      Constant folded = foldResult(trialInterpreter.applyBinary(start, op, l.value(), r.value()));
+
+      if (folded != null) {
+        return folded;
+      }
+    }
+
+    return (CompiledExpr) frame -> {
+      Object lv = lhs.eval(frame);
+      Object rv = rhs.eval(frame);
+      return interpreter.applyBinary(start, op, lv, rv);
+    };
+  }
+
+  @Override
+  public Object variableDecl(VariableDecl decl) {
+    Expression value = decl.getValue();
+
+    if (value == null) {
+      return null;
+    }
+
+    CompiledExpr compiled = lower(value);
+    SlotRef ref = resolve(decl.getName().getValue());
+
+    return (CompiledStatement) frame -> {
+      Object o = compiled.eval(frame);
+      if (o == null) {
+        return;
+      }
+
+      ref.assign(frame, o);
+    };
+  }
+
+  @Override
+  public Object sheet(SheetStatement sheet) {
+    throw doNotCall();
+  }
+
+  @Override
+  public Object rule(RuleStatement rule) {
+    SelectorExpression selectorExpr = rule.getSelector();
+
+    // Compile the selector ahead of time, unless it has errors, those have
+    // to be reported when the rule is run
+    trialErrors.getErrors().clear();
+    Selector compiledSelector = selectorExpr.compile(trialErrors);
+
+    if (!trialErrors.getErrors().isEmpty()) {
+      trialErrors.getErrors().clear();
+      compiledSelector = null;
+    }
+
+    Selector precompiled = compiledSelector;
+    Layout bodyLayout = layouts.get(rule);
+    BlockStatement body = (BlockStatement) lowerBody(rule, rule.getBody());
+
+    return (CompiledStatement) frame -> {
+      ChimeraSheetBuilder builder = frame.sheetBuilder;
+      if (builder == null) {
+        return;
+      }
+
+      Selector selector = precompiled == null
+          ? selectorExpr.compile(errors)
+          : precompiled;
+
+      Stack<Selector> selectorStack = frame.run.selectorStack;
+      selectorStack.push(selector);
+
+      selector = Interpreter.selectorFromStack(selectorStack);
+
+      PropertySet properties = new PropertySet();
+
+      Frame ruleFrame = new Frame(frame, bodyLayout, frame.run);
+      ruleFrame.propertyOutput = properties;
+      ruleFrame.sheetBuilder = builder;
+
+      // Rule bodies ignore control flow
+      for (CompiledStatement statement : body.statements) {
+        statement.exec(ruleFrame);
+      }
+
+      selectorStack.pop();
+
+      builder.addRule(new Rule(selector, properties));
+    };
+  }
+
+  @Override
+  public Object property(PropertyStatement propertyStat) {
+    Identifier propertyName = propertyStat.getPropertyName();
+    if (propertyName == null) {
+      return null;
+    }
+
+    String name = propertyName.getValue().toLowerCase();
+    Property<Object> property = Properties.getByKey(name);
+    Location start = propertyStat.getStart();
+
+    if (property == null) {
+      return (CompiledStatement) frame -> {
+        errors.error(start, "Unknown/unsupported property %s", name);
+      };
+    }
+
+    Expression valExpr = propertyStat.getValue();
+    if (valExpr == null) {
+      return null;
+    }
+
+    CompiledExpr compiled = lower(valExpr);
+    String input = context.getInput(valExpr.getStart(), propertyStat.getEnd());
+    boolean important = propertyStat.getImportant() != null;
+    Location valueStart = valExpr.getStart();
+
+    return (CompiledStatement) frame -> {
+      Object value = compiled.eval(frame);
+
+      Value<Object> sval = coerceCssValue(
+          input,
+          important,
+          property,
+          value,
+          errors,
+          valueStart
+      );
+
+      if (sval == null) {
+        return;
+      }
+
+      PropertySet out = frame.propertyOutput;
+      if (out != null) {
+        out.setValue(property, sval);
+      }
+    };
+  }
+
+  @Override
+  public Object returnStatement(ControlFlowStatement stat) {
+    if (stat.isInvalid()) {
+      return null;
+    }
+
+    Expression expr = stat.getReturnValue();
+
+    if (expr == null) {
+      return (CompiledStatement) frame -> frame.setReturnValue(Nothing.INSTANCE);
+    }
+
+    CompiledExpr compiled = lower(expr);
+    return (CompiledStatement) frame -> frame.setReturnValue(compiled.eval(frame));
+  }
+
+  @Override
+  public Object logStatement(LogStatement statement) {
+    Expression expression = statement.getExpression();
+    String name = statement.getName();
+    Level level = statement.getLevel();
+
+    int line = statement.getStart().line();
+
+    if (expression == null) {
+      return (CompiledStatement) frame -> errors.log(level, "@%s:%s", name, line);
+    }
+
+    CompiledExpr compiled = lower(expression);
+
+    return (CompiledStatement) frame -> {
+      Object o = compiled.eval(frame);
+      errors.log(level, "@%s:%s %s", name, line, o);
+    };
+  }
+
+  @Override
+  public Object importStatement(ImportStatement statement) {
+    return null;
+  }
+
+  @Override
+  public Object ifStatement(IfStatement statement) {
+    CompiledExpr condition = lower(statement.getCondition());
+    CompiledStatement body = lower(statement.getBody());
+
+    CompiledStatement elseBody = statement.getElseBody() == null
+        ? null
+        : lower(statement.getElseBody());
+
+    if (condition instanceof Constant c) {
+      Boolean b = Chimera.coerceValue(Boolean.class, c.value());
+      return Objects.requireNonNullElse(b, false) ? body : elseBody;
+    }
+
+    return (CompiledStatement) frame -> {
+      Boolean b = Chimera.coerceValue(Boolean.class, condition.eval(frame));
+
+      if (b != null && b) {
+        if (body != null) {
+          body.exec(frame);
+        }
+      } else if (elseBody != null) {
+        elseBody.exec(frame);
+      }
+    };
+  }
+
+  @Override
+  public Object blockStatement(Block block) {
+    return new BlockStatement(lowerAll(block.getStatements()));
+  }
+
+  @Override
+  public Object function(FunctionStatement statement) {
+    String name = statement.getFunctionName().getValue();
+
+    if (topScope.getFunction(name) == null) {
+      return null;
+    }
+
+    Location start = statement.getStart();
+    return (CompiledStatement) frame -> errors.error(start, "Function already exists");
+  }
+
+  @Override
+  public Object functionParameter(FuncParameterStatement parameter) {
+    return null;
+  }
+
+  @Override
+  public Object assertStatement(AssertStatement statement) {
+    CompiledExpr condition = lower(statement.getCondition());
+    CompiledExpr message = statement.getMessage() == null
+        ? null
+        : lower(statement.getMessage());
+
+    Location start = statement.getStart();
+    Expression cond = statement.getCondition();
+
+    return (CompiledStatement) frame -> {
+      if (context.isIgnoringAsserts()) {
+        return;
+      }
+
+      Boolean b = Chimera.coerceValue(Boolean.class, condition.eval(frame));
+      if (b != null && b) {
+        return;
+      }
+
+      if (message != null) {
+        errors.error(start, String.valueOf(message.eval(frame)));
+      } else {
+        String input = context.getInput(cond.getStart(), cond.getEnd());
+        errors.error(start, "Failed assert: " + input);
+      }
+    };
+  }
+
+  @Override
+  public Object exprStatement(ExpressionStatement statement) {
+    CompiledExpr compiled = lower(statement.getExpr());
+
+    if (compiled instanceof Constant) {
+      return null;
+    }
+
+    return (CompiledStatement) compiled::eval;
+  }
+
+  @Override
+  public Object mixin(MixinStatement statement) {
+    int slot = layout.slots.getInt(MIXIN_PREFIX + statement.getName().getValue());
+    Layout bodyLayout = layouts.get(statement);
+    CompiledStatement body = lowerBody(statement, statement.getBody());
+
+    return (CompiledStatement) frame -> {
+      frame.slots[slot] = new CompiledMixin(bodyLayout, body, frame);
+    };
+  }
+
+  @Override
+  public Object include(IncludeStatement statement) {
+    String name = statement.getName().getValue();
+    SlotRef ref = resolve(MIXIN_PREFIX + name);
+    Location start = statement.getStart();
+
+    return (CompiledStatement) frame -> {
+      CompiledMixin mixin = (CompiledMixin) ref.get(frame);
+
+      if (mixin == null) {
+        errors.error(start, "Unknown mixin '%s'", name);
+        return;
+      }
+
+      if (frame.propertyOutput == null) {
+        errors.error(start, "Cannot use @include here");
+        return;
+      }
+
+      Frame child = new Frame(mixin.frame(), mixin.layout(), frame.run);
+      child.propertyOutput = frame.propertyOutput;
+      child.sheetBuilder = frame.sheetBuilder;
+
+      mixin.body().exec(child);
+    };
+  }
+
+  /* --------------------------- Runtime ---------------------------- */
+
+  public static class CompiledSheet {
+
+    private final Layout layout;
+    private final CompiledStatement[] statements;
+
+    CompiledSheet(Layout layout, CompiledStatement[] statements) {
+      this.layout = layout;
+      this.statements = statements;
+    }
+
+    public ChimeraStylesheet execute() {
+      Frame top = new Frame(null, layout, new Run());
+      top.sheetBuilder = new ChimeraSheetBuilder(null);
+
+      for (CompiledStatement statement : statements) {
+        statement.exec(top);
+      }
+
+      return top.sheetBuilder.build();
+    }
+  }
+
+  interface CompiledExpr {
+    Object eval(Frame frame);
+  }
+
+  interface CompiledStatement {
+    void exec(Frame frame);
+  }
+
+  record Constant(Object value) implements CompiledExpr {
+
+    @Override
+    public Object eval(Frame frame) {
+      return value;
+    }
+  }
+
+  record BlockStatement(CompiledStatement[] statements) implements CompiledStatement {
+
+    @Override
+    public void exec(Frame frame) {
+      for (CompiledStatement statement : statements) {
+        statement.exec(frame);
+
+        if (frame.controlFlow != null) {
+          return;
+        }
+      }
+    }
+  }
+
+  record CompiledMixin(Layout layout, CompiledStatement body, Frame frame) {
+
+  }
+
+  // Names declared by a single frame, mapped to their slot index
+  static class Layout {
+
+    final Layout parent;
+    final Object2IntOpenHashMap<String> slots = new Object2IntOpenHashMap<>();
+
+    Layout(Layout parent) {
+      this.parent = parent;
+      slots.defaultReturnValue(-1);
+    }
+
+    void declare(String name) {
+      if (slots.containsKey(name)) {
+        return;
+      }
+
+      slots.put(name, slots.size());
+    }
+  }
+
+  // Every frame a name may be declared in, innermost first. Each entry is
+  // the amount of parent links to follow and the slot in that frame
+  record SlotRef(int[] hops, int[] slots) {
+
+    Object get(Frame frame) {
+      Frame f = frame;
+      int depth = 0;
+
+      for (int i = 0; i < hops.length; i++) {
+        while (depth < hops[i]) {
+          f = f.parent;
+          depth++;
+        }
+
+        Object o = f.slots[slots[i]];
+        if (o != null) {
+          return o;
+        }
+      }
+
+      return null;
+    }
+
+    // Assigns the value in the innermost frame that already has a value,
+    // or the current frame, if none do
+    void assign(Frame frame, Object value) {
+      Frame f = frame;
+      int depth = 0;
+
+      for (int i = 0; i < hops.length; i++) {
+        while (depth < hops[i]) {
+          f = f.parent;
+          depth++;
+        }
+
+        if (f.slots[slots[i]] != null) {
+          f.slots[slots[i]] = value;
+          return;
+        }
+      }
+
+      // The declaring frame is always the first entry
+      frame.slots[slots[0]] = value;
+    }
+  }
+
+  // State shared by every frame of a single execution
+  static class Run {
+    final Stack<Selector> selectorStack = new Stack<>();
+    final Scope callScope = new Scope();
+  }
+
+  static class Frame {
+
+    final Frame parent;
+    final Object[] slots;
+    final Run run;
+
+    PropertySet propertyOutput;
+    ChimeraSheetBuilder sheetBuilder;
+
+    ControlFlow controlFlow;
+    Object controlFlowValue;
+
+    Frame(Frame parent, Layout layout, Run run) {
+      this.parent = parent;
+      this.slots = new Object[layout.slots.size()];
+      this.run = run;
+    }
+
+    void setReturnValue(Object value) {
+      this.controlFlowValue = Objects.requireNonNullElse(value, Nothing.INSTANCE);
+      this.controlFlow = ControlFlow.RETURN;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.juliewoolie.chimera.parse;
 
+import java.nio.CharBuffer;
 import java.util.Stack;
 import lombok.Getter;
 
@@ -14,9 +15,18 @@ public class TokenStream {
   static final int CR = '\r';
 
   @Getter
-  private final StringBuffer input;
+  private final CharSequence input;
   private final CompilerErrors errors;
 
+  // The lexer reads from a plain array, going through CharSequence.charAt
+  // would be a virtual (and for StringBuffer, synchronized) call per char.
+  // Tokens only turn into strings when they carry a value
+  private final char[] chars;
+  private final int offset;
+  private final int length;
+
+  private final NameTable names = NameTable.get();
+
   private int col = 0;
   private int lineno = 1;
   private int cursor = 0;
@@ -28,13 +38,53 @@ public class TokenStream {
 
   private final Stack<ParseMode> modeStack = new Stack<>();
 
-  public TokenStream(StringBuffer input, CompilerErrors errors) {
+  public TokenStream(CharSequence input, CompilerErrors errors) {
     this.input = input;
     this.errors = errors;
 
+    if (input instanceof CharBuffer buf && buf.hasArray()) {
+      this.chars = buf.array();
+      this.offset = buf.arrayOffset() + buf.position();
+      this.length = buf.remaining();
+    } else {
+      this.chars = toCharArray(input);
+      this.offset = 0;
+      this.length = chars.length;
+    }
+
     this.currentChar = charAt(0);
   }
 
+  public TokenStream(char[] input, CompilerErrors errors) {
+    this(CharBuffer.wrap(input), errors);
+  }
+
+  static char[] toCharArray(CharSequence seq) {
+    return switch (seq) {
+      case String str -> str.toCharArray();
+
+      case StringBuilder builder -> {
+        char[] arr = new char[builder.length()];
+        builder.getChars(0, arr.length, arr, 0);
+        yield arr;
+      }
+
+      case StringBuffer buffer -> {
+        char[] arr = new char[buffer.length()];
+        buffer.getChars(0, arr.length, arr, 0);
+        yield arr;
+      }
+
+      default -> {
+        char[] arr = new char[seq.length()];
+        for (int i = 0; i < arr.length; i++) {
+          arr[i] = seq.charAt(i);
+        }
+        yield arr;
+      }
+    };
+  }
+
   public StreamState saveState() {
     return new StreamState(this, cursor, col, lineno, peeked, currentTokenStart);
   }
@@ -93,7 +143,7 @@ public class TokenStream {
   void advance() {
     int nCursor = cursor + 1;
 
-    if (nCursor >= input.length()) {
+    if (nCursor >= length) {
       currentChar = EOF;
       cursor = nCursor;
       return;
@@ -120,11 +170,16 @@ public class TokenStream {
   }
 
   int charAt(int index) {
-    if (index < 0 || index >= input.length()) {
+    if (index < 0 || index >= length) {
       return EOF;
     }
 
-    return input.charAt(index);
+    return chars[offset + index];
+  }
+
+  // Interned string of the input in the [start, end) cursor range
+  private String text(int start, int end) {
+    return names.intern(chars, offset + start, end - start);
   }
 
   void skipIrrelevant() {
@@ -299,12 +354,12 @@ public class TokenStream {
           yield token(Token.HASHTAG);
         }
 
-        StringBuffer hexSequence = new StringBuffer();
+        int hexStart = cursor;
         while (isHexNumber(currentChar)) {
-          hexSequence.appendCodePoint(currentChar);
           advance();
         }
 
+        String hexSequence = text(hexStart, cursor);
         int len = hexSequence.length();
         if (len != HEX_LENGTH && len != HEX_SHORT_LENGTH && len != HEX_ALPHA_LENGTH) {
           errors.error(currentTokenStart, "Invalid hex sequence: %s", hexSequence);
@@ -320,7 +375,7 @@ public class TokenStream {
           ttype = Token.HEX_SHORT;
         }
 
-        yield token(ttype, hexSequence.toString());
+        yield token(ttype, hexSequence);
       }
 
       case '\'', '"', '`' -> {
@@ -429,8 +484,40 @@ public class TokenStream {
 
     advance();
 
-    boolean escaped = false;
+    // Most strings have no escapes, those are read as a slice of the input
+    int contentStart = cursor;
+
+    while (true) {
+      if (currentChar == EOF) {
+        errors.error(start, "Unclosed string");
+        return text(contentStart, cursor);
+      }
+      if (currentChar == LF || currentChar == CR) {
+        errors.error(location(), "Line break inside string");
+        return text(contentStart, cursor);
+      }
+
+      if (currentChar == quote) {
+        String str = text(contentStart, cursor);
+        advance();
+        return str;
+      }
+
+      if (currentChar == '\\') {
+        break;
+      }
+
+      advance();
+    }
+
     StringBuilder builder = new StringBuilder();
+    builder.append(chars, offset + contentStart, cursor - contentStart);
+
+    return readEscapedString(builder, start, quote);
+  }
+
+  private String readEscapedString(StringBuilder builder, Location start, int quote) {
+    boolean escaped = false;
 
     while (true) {
       if (currentChar == EOF) {
@@ -502,8 +589,26 @@ public class TokenStream {
   }
 
   private String readId() {
-    StringBuffer buf = new StringBuffer();
+    int start = cursor;
 
+    while (currentChar != EOF) {
+      if (isValidEscape()) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(chars, offset + start, cursor - start);
+        return readEscapedId(builder);
+      }
+
+      if (!isIdPart(currentChar)) {
+        break;
+      }
+
+      advance();
+    }
+
+    return text(start, cursor);
+  }
+
+  private String readEscapedId(StringBuilder buf) {
     while (true) {
       if (currentChar == EOF) {
         break;
@@ -524,26 +629,23 @@ public class TokenStream {
   }
 
   private Token parseNumberValue() {
-    StringBuilder repr = new StringBuilder();
+    int start = cursor;
+    int exponentStart = -1;
     int ttype = Token.INT;
 
     if (currentChar == '-') {
-      repr.append('-');
       advance();
     }
 
     while (isNumber(currentChar)) {
-      repr.appendCodePoint(currentChar);
       advance();
     }
 
     if (currentChar == '.' && isNumber(charAt(cursor + 1))) {
-      repr.append('.');
       advance();
       ttype = Token.NUMBER;
 
       while (isNumber(currentChar)) {
-        repr.appendCodePoint(currentChar);
         advance();
       }
     }
@@ -557,21 +659,26 @@ public class TokenStream {
 
       if (isNumber(ahead)) {
         ttype = Token.NUMBER;
+        exponentStart = cursor;
         advance();
 
         if (currentChar == '+' || currentChar == '-') {
-          repr.appendCodePoint(currentChar);
           advance();
         }
 
         while (isNumber(currentChar)) {
-          repr.appendCodePoint(currentChar);
           advance();
         }
       }
     }
 
-    return token(ttype, repr.toString());
+    if (exponentStart == -1) {
+      return token(ttype, text(start, cursor));
+    }
+
+    // The exponent character itself is not part of the value
+    String repr = text(start, exponentStart) + text(exponentStart + 1, cursor);
+    return token(ttype, repr);
   }
 
   private Token singleOrEq(int type, int eqType) {
@@ -0,0 +1,214 @@
+package com.juliewoolie.chimera.selector;
+
+import com.google.common.base.Strings;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import com.juliewoolie.dom.Element;
+
+// Counting bloom filter of the tag names, IDs and class names of the
+// elements on the current ancestor stack. Lets a selector be rejected
+// without walking up the parent chain if one of its required ancestor
+// keys is definitely not present
+public class AncestorFilter {
+
+  static final int KEY_BITS = 12;
+  static final int TABLE_SIZE = 1 << KEY_BITS;
+  static final int KEY_MASK = TABLE_SIZE - 1;
+
+  static final int SALT_TAG = 13;
+  static final int SALT_ID = 17;
+  static final int SALT_CLASS = 19;
+
+  static final int[] EMPTY = new int[0];
+
+  private final byte[] counters = new byte[TABLE_SIZE];
+
+  private final List<Element> elements = new ArrayList<>();
+  private final IntArrayList hashes = new IntArrayList();
+  private final IntArrayList frameStarts = new IntArrayList();
+
+  public boolean isEmpty() {
+    return elements.isEmpty();
+  }
+
+  public boolean isTop(Element element) {
+    if (elements.isEmpty()) {
+      return element == null;
+    }
+
+    return elements.getLast() == element;
+  }
+
+  public void pushAncestors(Element element) {
+    Element parent = element.getParent();
+    if (parent == null) {
+      return;
+    }
+
+    pushAncestors(parent);
+    push(parent);
+  }
+
+  public void push(Element element) {
+    elements.addLast(element);
+    frameStarts.add(hashes.size());
+
+    pushHash(hash(SALT_TAG, element.getTagName().toLowerCase(Locale.ROOT)));
+
+    String id = element.getId();
+    if (!Strings.isNullOrEmpty(id)) {
+      pushHash(hash(SALT_ID, id));
+    }
+
+    if (!Strings.isNullOrEmpty(element.getClassName())) {
+      for (String className : element.getClassList()) {
+        if (className.isEmpty()) {
+          continue;
+        }
+
+        pushHash(hash(SALT_CLASS, className));
+      }
+    }
+  }
+
+  public void pop() {
+    if (elements.isEmpty()) {
+      return;
+    }
+
+    elements.removeLast();
+    int start = frameStarts.removeInt(frameStarts.size() - 1);
+
+    while (hashes.size() > start) {
+      int h = hashes.removeInt(hashes.size() - 1);
+      decrement(h & KEY_MASK);
+      decrement((h >>> KEY_BITS) & KEY_MASK);
+    }
+  }
+
+  public void clear() {
+    elements.clear();
+    hashes.clear();
+    frameStarts.clear();
+    Arrays.fill(counters, (byte) 0);
+  }
+
+  public boolean mightMatch(Selector selector) {
+    if (!(selector instanceof RegularSelector regular)) {
+      return true;
+    }
+
+    int[] required = regular.getAncestorHashes();
+
+    for (int h : required) {
+      if (!mightContain(h)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  boolean mightContain(int h) {
+    return counters[h & KEY_MASK] != 0
+        && counters[(h >>> KEY_BITS) & KEY_MASK] != 0;
+  }
+
+  private void pushHash(int h) {
+    hashes.add(h);
+    increment(h & KEY_MASK);
+    increment((h >>> KEY_BITS) & KEY_MASK);
+  }
+
+  private void increment(int slot) {
+    // Saturated counters are never decremented, they stay a false positive
+    // until the filter is cleared
+    if (counters[slot] == Byte.MAX_VALUE) {
+      return;
+    }
+
+    counters[slot]++;
+  }
+
+  private void decrement(int slot) {
+    if (counters[slot] == Byte.MAX_VALUE || counters[slot] == 0) {
+      return;
+    }
+
+    counters[slot]--;
+  }
+
+  static int hash(int salt, String value) {
+    int h = value.hashCode() * salt;
+
+    // murmur3 finalizer, spreads the bits used for the 2 table keys
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+
+    return h;
+  }
+
+  // Collects the hashes of every key an ancestor must have for the
+  // selector to match. Selectors after the last descendant or child
+  // combinator are siblings or the element itself, so they're skipped.
+  // Collecting stops at the first sibling combinator left of that, as
+  // everything further left belongs to an ancestor's sibling
+  static int[] ancestorHashes(SelectorNode[] nodes) {
+    if (nodes.length < 2) {
+      return EMPTY;
+    }
+
+    IntArrayList out = new IntArrayList();
+    boolean ancestor = false;
+
+    for (int i = nodes.length - 1; i > 0; i--) {
+      Combinator combinator = nodes[i].combinator;
+
+      if (combinator != Combinator.DESCENDANT && combinator != Combinator.PARENT) {
+        if (ancestor) {
+          break;
+        }
+
+        continue;
+      }
+
+      ancestor = true;
+      collectRequired(nodes[i - 1].selector, out);
+    }
+
+    if (out.isEmpty()) {
+      return EMPTY;
+    }
+
+    return out.toIntArray();
+  }
+
+  private static void collectRequired(Selector selector, IntArrayList out) {
+    switch (selector) {
+      case TagNameSelector tag -> out.add(hash(SALT_TAG, tag.tagName().toLowerCase(Locale.ROOT)));
+      case IdSelector id -> out.add(hash(SALT_ID, id.elementId()));
+      case ClassNameSelector cl -> out.add(hash(SALT_CLASS, cl.className()));
+
+      case SelectorNode node -> collectRequired(node.selector, out);
+
+      case SelectorList list -> {
+        // Only a compound requires all of its selectors to match
+        if (list.getType() != SelectorList.ListType.AND) {
+          return;
+        }
+
+        for (int i = 0; i < list.getSize(); i++) {
+          collectRequired(list.get(i), out);
+        }
+      }
+
+      default -> {}
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.juliewoolie.chimera.selector;
 
 import com.juliewoolie.dom.Element;
 import com.juliewoolie.dom.Node;
+import java.util.function.Predicate;
 
 public enum Combinator {
   DESCENDANT ("") {
@@ -11,7 +12,7 @@ public enum Combinator {
     }
 
     @Override
-    Element findNextMatching(Element el, SelectorNode node) {
+    Element findNextMatching(Element el, Predicate<Element> node) {
       Element p = el.getParent();
 
       while (p != null) {
@@ -31,7 +32,7 @@ public enum Combinator {
 
   PARENT (">") {
     @Override
-    Element findNextMatching(Element el, SelectorNode node) {
+    Element findNextMatching(Element el, Predicate<Element> node) {
       Element p = el.getParent();
 
       if (p == null) {
@@ -47,7 +48,7 @@ public enum Combinator {
 
   DIRECT_SIBLING ("+") {
     @Override
-    Element findNextMatching(Element el, SelectorNode node) {
+    Element findNextMatching(Element el, Predicate<Element> node) {
       Node previous = el.previousSibling();
 
       if (!(previous instanceof Element prevEl)) {
@@ -63,7 +64,7 @@ public enum Combinator {
 
   SIBLING ("~") {
     @Override
-    Element findNextMatching(Element el, SelectorNode node) {
+    Element findNextMatching(Element el, Predicate<Element> node) {
       Node n = el.previousSibling();
 
       while (n != null) {
@@ -85,7 +86,7 @@ public enum Combinator {
 
   NEST("&") {
     @Override
-    Element findNextMatching(Element el, SelectorNode node) {
+    Element findNextMatching(Element el, Predicate<Element> node) {
       if (node.test(el)) {
         return el;
       }
@@ -112,5 +113,5 @@ public enum Combinator {
         .append(' ');
   }
 
-  abstract Element findNextMatching(Element el, SelectorNode node);
+  abstract Element findNextMatching(Element el, Predicate<Element> node);
 }
@@ -39,12 +39,7 @@ public record PseudoClassSelector(PseudoClass pseudo) implements Selector {
         yield PseudoFunctions.NTH_LAST_OF_TYPE.test(element, ZERO);
       }
       case ONLY_OF_TYPE -> {
-        IndexResult result = IndexResult.indexMatching(
-            false,
-            element,
-            e -> e.getTagName().equals(element.getTagName())
-        );
-
+        IndexResult result = SiblingIndexCache.indexOfType(false, element);
         yield result.count() == 1;
       }
     };
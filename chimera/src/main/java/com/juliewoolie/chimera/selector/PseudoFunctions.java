@@ -32,11 +32,7 @@ public interface PseudoFunctions {
   AnbFunction NTH_OF_TYPE = new AnbFunction() {
     @Override
     public boolean test(Element el, AnB value) {
-      IndexResult idx = IndexResult.indexMatching(
-          false,
-          el,
-          e -> e.getTagName().equals(el.getTagName())
-      );
+      IndexResult idx = SiblingIndexCache.indexOfType(false, el);
 
       if (idx.index() == -1) {
         return false;
@@ -54,11 +50,7 @@ public interface PseudoFunctions {
   AnbFunction NTH_LAST_OF_TYPE = new AnbFunction() {
     @Override
     public boolean test(Element el, AnB value) {
-      IndexResult idx = IndexResult.indexMatching(
-          true,
-          el,
-          e -> e.getTagName().equals(el.getTagName())
-      );
+      IndexResult idx = SiblingIndexCache.indexOfType(true, el);
 
       if (idx.index() == -1) {
         return false;
@@ -8,6 +8,7 @@ public class RegularSelector implements Selector {
 
   private final SelectorNode[] nodes;
   private final Spec spec;
+  private final int[] ancestorHashes;
 
   private String cachedToString;
 
@@ -18,6 +19,8 @@ public class RegularSelector implements Selector {
     for (SelectorNode node : nodes) {
       node.appendSpec(spec);
     }
+
+    this.ancestorHashes = AncestorFilter.ancestorHashes(nodes);
   }
 
   @Override
@@ -0,0 +1,70 @@
+package com.juliewoolie.chimera.selector;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import com.juliewoolie.chimera.parse.Chimera;
+import com.juliewoolie.dom.ParserException;
+
+// Bounded LRU cache of parsed selector queries, used by querySelector,
+// querySelectorAll and matches. Each thread has its own cache, so no
+// locking is needed, and compiled selectors are immutable, so they're
+// shared by all documents
+public class SelectorCache {
+
+  static final int MAX_ENTRIES = 256;
+
+  private static final ThreadLocal<SelectorCache> CACHE = ThreadLocal.withInitial(SelectorCache::new);
+
+  private final Map<String, Selector> entries = new LinkedHashMap<>(32, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Selector> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  private long hits = 0;
+  private long misses = 0;
+
+  public static SelectorCache get() {
+    return CACHE.get();
+  }
+
+  public static Selector parse(String query) throws ParserException {
+    return get().getOrParse(query);
+  }
+
+  public Selector getOrParse(String query) throws ParserException {
+    Selector selector = entries.get(query);
+
+    if (selector != null) {
+      hits++;
+      return selector;
+    }
+
+    misses++;
+
+    // Throws on invalid queries, so those are never cached
+    selector = Chimera.parseSelector(query);
+    entries.put(query, selector);
+
+    return selector;
+  }
+
+  public void clear() {
+    entries.clear();
+    hits = 0;
+    misses = 0;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+}
@@ -0,0 +1,155 @@
+package com.juliewoolie.chimera.selector;
+
+import com.google.common.base.Strings;
+import java.util.Locale;
+import java.util.function.Predicate;
+import com.juliewoolie.dom.Element;
+
+// Turns a selector tree into a tree of small, pre-linked lambdas. Each
+// lambda is monomorphic, so the JIT can inline the whole matcher instead
+// of dispatching through the selector records on every node
+public final class SelectorCompiler {
+  private SelectorCompiler() {}
+
+  static final Predicate<Element> ALWAYS = el -> true;
+
+  public static Predicate<Element> compile(Selector selector) {
+    return switch (selector) {
+      case MatchAll ignored -> ALWAYS;
+
+      case TagNameSelector tag -> {
+        String name = tag.tagName().toLowerCase(Locale.ROOT);
+        yield el -> el.getTagName().equalsIgnoreCase(name);
+      }
+
+      case ClassNameSelector cl -> {
+        String name = cl.className();
+
+        // The class list is kept split into words, which saves re-scanning
+        // the attribute string on every test
+        yield el -> {
+          if (Strings.isNullOrEmpty(el.getClassName())) {
+            return false;
+          }
+          return el.getClassList().contains(name);
+        };
+      }
+
+      case IdSelector id -> {
+        String elementId = id.elementId();
+
+        // Cheap rejection before the document lookup
+        yield el -> elementId.equals(el.getId()) && id.test(el);
+      }
+
+      case AttributeSelector attr -> compileAttribute(attr);
+
+      case PseudoFuncSelector<?> func -> compileFunction(func);
+
+      case SelectorNode node -> compile(node.getSelector());
+
+      case SelectorList list -> compileList(list);
+
+      case RegularSelector regular -> compileRegular(regular.getNodes());
+
+      default -> selector;
+    };
+  }
+
+  private static Predicate<Element> compileAttribute(AttributeSelector attr) {
+    String key = attr.attributeKey();
+    String value = attr.value();
+
+    return switch (attr.op()) {
+      case HAS -> el -> !Strings.isNullOrEmpty(el.getAttribute(key));
+
+      case EQUALS -> el -> {
+        String attrValue = el.getAttribute(key);
+        return !Strings.isNullOrEmpty(attrValue) && attrValue.equals(value);
+      };
+
+      default -> attr;
+    };
+  }
+
+  private static Predicate<Element> compileFunction(PseudoFuncSelector<?> func) {
+    if (!(func.argument() instanceof Selector argument)) {
+      return func;
+    }
+
+    Predicate<Element> compiled = compile(argument);
+
+    if (func.func() == PseudoFunctions.IS) {
+      return compiled;
+    }
+    if (func.func() == PseudoFunctions.NOT) {
+      return compiled.negate();
+    }
+
+    return func;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Predicate<Element> compileList(SelectorList list) {
+    int size = list.getSize();
+
+    if (size == 0) {
+      return list;
+    }
+    if (size == 1) {
+      return compile(list.get(0));
+    }
+
+    Predicate<Element>[] members = new Predicate[size];
+    for (int i = 0; i < size; i++) {
+      members[i] = compile(list.get(i));
+    }
+
+    if (list.getType() == SelectorList.ListType.OR) {
+      return el -> {
+        for (Predicate<Element> member : members) {
+          if (member.test(el)) {
+            return true;
+          }
+        }
+        return false;
+      };
+    }
+
+    return el -> {
+      for (Predicate<Element> member : members) {
+        if (!member.test(el)) {
+          return false;
+        }
+      }
+      return true;
+    };
+  }
+
+  private static Predicate<Element> compileRegular(SelectorNode[] nodes) {
+    if (nodes.length < 1) {
+      return el -> false;
+    }
+
+    // Links are built from the leftmost node, each link finds the element
+    // its combinator points to and hands it to the link before it. Like
+    // the interpreter, only the first element a combinator finds is tried
+    Predicate<Element> chain = ALWAYS;
+
+    for (int i = 1; i < nodes.length; i++) {
+      Predicate<Element> previous = compile(nodes[i - 1].getSelector());
+      Combinator combinator = nodes[i].getCombinator();
+      Predicate<Element> rest = chain;
+
+      chain = el -> {
+        Element next = combinator.findNextMatching(el, previous);
+        return next != null && rest.test(next);
+      };
+    }
+
+    Predicate<Element> last = compile(nodes[nodes.length - 1].getSelector());
+    Predicate<Element> links = chain;
+
+    return el -> last.test(el) && links.test(el);
+  }
+}
@@ -0,0 +1,101 @@
+package com.juliewoolie.chimera.selector;
+
+import com.juliewoolie.dom.Element;
+import com.juliewoolie.dom.Node;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import java.util.List;
+
+// Per-parent cache of the type indices used by the structural pseudo
+// classes (:nth-of-type, :last-of-type, :only-of-type and so on). A
+// parent's entry is built with a single pass over its children and then
+// answers every child's lookup, instead of each child rescanning all of
+// its siblings.
+//
+// Entries are kept on the parent element itself, so they're collected
+// with the document, and the parent drops its entry whenever its child
+// list changes. Children are looked up by identity, not by sibling index,
+// because sibling indices are still stale while a removal is being
+// dispatched
+public final class SiblingIndexCache {
+  private SiblingIndexCache() {}
+
+  private static final IndexResult NO_PARENT = new IndexResult(-1, 0, -1);
+
+  // Implemented by elements that can hold their children's entry
+  public interface Holder {
+
+    Entry getSiblingIndexEntry();
+
+    void setSiblingIndexEntry(Entry entry);
+  }
+
+  // Gets the 1-based index of the element among its siblings with the
+  // same tag name, counted from the end if inverted, and the number of
+  // those siblings
+  public static IndexResult indexOfType(boolean inverted, Element element) {
+    Element parent = element.getParent();
+    if (parent == null) {
+      return NO_PARENT;
+    }
+
+    Entry entry;
+
+    if (parent instanceof Holder holder) {
+      entry = holder.getSiblingIndexEntry();
+
+      if (entry == null) {
+        entry = Entry.build(parent);
+        holder.setSiblingIndexEntry(entry);
+      }
+    } else {
+      entry = Entry.build(parent);
+    }
+
+    // The element is being removed from the parent
+    int index = entry.typeIndex.getInt(element);
+    if (index == -1) {
+      return NO_PARENT;
+    }
+
+    int count = entry.typeCount.getInt(element.getTagName());
+
+    if (inverted) {
+      index = count - index + 1;
+    }
+
+    return new IndexResult(index, count, index - 1);
+  }
+
+  public static final class Entry {
+
+    private final Reference2IntOpenHashMap<Element> typeIndex;
+    private final Object2IntOpenHashMap<String> typeCount;
+
+    private Entry(
+        Reference2IntOpenHashMap<Element> typeIndex,
+        Object2IntOpenHashMap<String> typeCount
+    ) {
+      this.typeIndex = typeIndex;
+      this.typeCount = typeCount;
+    }
+
+    static Entry build(Element parent) {
+      List<Node> children = parent.getChildren();
+
+      Reference2IntOpenHashMap<Element> typeIndex = new Reference2IntOpenHashMap<>(children.size());
+      Object2IntOpenHashMap<String> typeCount = new Object2IntOpenHashMap<>();
+      typeIndex.defaultReturnValue(-1);
+
+      for (Node child : children) {
+        if (!(child instanceof Element el)) {
+          continue;
+        }
+
+        typeIndex.put(el, typeCount.addTo(el.getTagName(), 1) + 1);
+      }
+
+      return new Entry(typeIndex, typeCount);
+    }
+  }
+}
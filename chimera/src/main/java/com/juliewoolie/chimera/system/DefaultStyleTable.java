@@ -0,0 +1,289 @@
+package com.juliewoolie.chimera.system;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import lombok.Getter;
+import com.juliewoolie.chimera.ChimeraStylesheet;
+import com.juliewoolie.chimera.Properties;
+import com.juliewoolie.chimera.Property;
+import com.juliewoolie.chimera.PropertySet;
+import com.juliewoolie.chimera.Rule;
+import com.juliewoolie.chimera.Value;
+import com.juliewoolie.chimera.selector.RegularSelector;
+import com.juliewoolie.chimera.selector.Selector;
+import com.juliewoolie.chimera.selector.SelectorList;
+import com.juliewoolie.chimera.selector.SelectorList.ListType;
+import com.juliewoolie.chimera.selector.SelectorNode;
+import com.juliewoolie.chimera.selector.TagNameSelector;
+import com.juliewoolie.dom.Element;
+
+// The default stylesheet resolved ahead of time. Rules that only select by
+// tag name are grouped by tag, so the cascade can start from an element's
+// base style without testing those rules, every other rule is left in the
+// residual list and goes through the normal rule index. Also keeps a per
+// tag table of the values the 'initial' keyword resolves to
+public class DefaultStyleTable {
+
+  private static final PropertySet[] NO_SETS = new PropertySet[0];
+  private static final Rule[] NO_BASE_RULES = new Rule[0];
+  private static final IndexedRule[] NO_RULES = new IndexedRule[0];
+
+  @Getter
+  private final ChimeraStylesheet sheet;
+
+  private final Map<String, TagStyle> tags = new HashMap<>();
+
+  // Rules left for the cascade, in specificity order
+  @Getter
+  private final List<Rule> residualRules = new ArrayList<>();
+
+  // Property ID -> residual rules that set it, in source order
+  private final IndexedRule[][] residualByProperty;
+
+  // Property ID -> the last base rule in cascade order that sets it
+  private final Rule[] lastBaseRule;
+
+  private DefaultStyleTable(ChimeraStylesheet sheet) {
+    this.sheet = sheet;
+    this.residualByProperty = new IndexedRule[Properties.count()][];
+    this.lastBaseRule = new Rule[Properties.count()];
+
+    buildBase();
+    buildInitial();
+  }
+
+  // The default sheet is shared by every document, so the table is built
+  // once and kept on the sheet itself
+  public static DefaultStyleTable of(ChimeraStylesheet sheet) {
+    DefaultStyleTable table = sheet.getDefaultStyleTable();
+
+    if (table == null) {
+      table = new DefaultStyleTable(sheet);
+      sheet.setDefaultStyleTable(table);
+    }
+
+    return table;
+  }
+
+  private void buildBase() {
+    List<Rule> sorted = new ArrayList<>(sheet.getLength());
+    for (int i = 0; i < sheet.getLength(); i++) {
+      sorted.add(sheet.getRule(i));
+    }
+    sorted.sort(null);
+
+    Map<String, List<Rule>> baseRules = new HashMap<>();
+    BitSet residualProperties = new BitSet();
+    List<String> tagNames = new ArrayList<>(1);
+
+    for (Rule rule : sorted) {
+      tagNames.clear();
+      PropertySet set = rule.getPropertySet();
+
+      // Base styles are applied before everything else, so a tag rule can
+      // only be moved there if no rule that comes before it sets any of
+      // the same properties
+      if (!collectTagNames(rule.getSelectorObject(), tagNames)
+          || intersects(set, residualProperties)
+      ) {
+        residualRules.add(rule);
+
+        for (int id = set.nextId(0); id >= 0; id = set.nextId(id + 1)) {
+          residualProperties.set(id);
+        }
+        continue;
+      }
+
+      for (int id = set.nextId(0); id >= 0; id = set.nextId(id + 1)) {
+        lastBaseRule[id] = rule;
+      }
+
+      for (String tagName : tagNames) {
+        List<Rule> rules = baseRules.computeIfAbsent(tagName, s -> new ArrayList<>());
+
+        // Selector lists may list the same tag twice
+        if (!rules.isEmpty() && rules.getLast() == rule) {
+          continue;
+        }
+
+        rules.add(rule);
+      }
+    }
+
+    for (Map.Entry<String, List<Rule>> entry : baseRules.entrySet()) {
+      TagStyle style = tagStyle(entry.getKey());
+      style.baseRules = entry.getValue().toArray(Rule[]::new);
+      style.base = entry.getValue().stream().map(Rule::getPropertySet).toArray(PropertySet[]::new);
+    }
+  }
+
+  private void buildInitial() {
+    Int2ObjectOpenHashMap<List<IndexedRule>> residual = new Int2ObjectOpenHashMap<>();
+    List<String> tagNames = new ArrayList<>(1);
+
+    // 'initial' takes the first value in source order, not cascade order
+    for (int i = 0; i < sheet.getLength(); i++) {
+      Rule rule = sheet.getRule(i);
+      PropertySet set = rule.getPropertySet();
+
+      tagNames.clear();
+
+      if (!collectTagNames(rule.getSelectorObject(), tagNames)) {
+        for (int id = set.nextId(0); id >= 0; id = set.nextId(id + 1)) {
+          residual.computeIfAbsent(id, i1 -> new ArrayList<>()).add(new IndexedRule(i, rule));
+        }
+        continue;
+      }
+
+      for (String tagName : tagNames) {
+        TagStyle style = tagStyle(tagName);
+
+        for (int id = set.nextId(0); id >= 0; id = set.nextId(id + 1)) {
+          if (style.initial[id] != null) {
+            continue;
+          }
+
+          style.initial[id] = set.valueAt(id);
+          style.initialOrder[id] = i;
+        }
+      }
+    }
+
+    for (int id = 0; id < residualByProperty.length; id++) {
+      List<IndexedRule> rules = residual.get(id);
+      residualByProperty[id] = rules == null ? NO_RULES : rules.toArray(IndexedRule[]::new);
+    }
+  }
+
+  private TagStyle tagStyle(String tagName) {
+    return tags.computeIfAbsent(tagName, s -> new TagStyle(residualByProperty.length));
+  }
+
+  private static boolean intersects(PropertySet set, BitSet ids) {
+    for (int id = set.nextId(0); id >= 0; id = set.nextId(id + 1)) {
+      if (ids.get(id)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Returns false, unless the selector matches exactly the elements with
+  // one of the collected tag names
+  static boolean collectTagNames(Selector selector, List<String> out) {
+    return switch (selector) {
+      case TagNameSelector tag -> {
+        out.add(tag.tagName().toLowerCase(Locale.ROOT));
+        yield true;
+      }
+
+      case SelectorNode node -> collectTagNames(node.getSelector(), out);
+
+      case RegularSelector regular -> {
+        SelectorNode[] nodes = regular.getNodes();
+        yield nodes.length == 1 && collectTagNames(nodes[0], out);
+      }
+
+      case SelectorList list -> {
+        if (list.getType() != ListType.OR || list.getSize() < 1) {
+          yield false;
+        }
+
+        for (int i = 0; i < list.getSize(); i++) {
+          if (!collectTagNames(list.get(i), out)) {
+            yield false;
+          }
+        }
+
+        yield true;
+      }
+
+      default -> false;
+    };
+  }
+
+  // Property sets of the tag rules that apply to the element, in cascade
+  // order
+  public PropertySet[] baseStyle(Element element) {
+    TagStyle style = tags.get(element.getTagName().toLowerCase(Locale.ROOT));
+
+    if (style == null) {
+      return NO_SETS;
+    }
+
+    return style.base;
+  }
+
+  // Rules of the property sets returned by baseStyle, in the same order
+  public Rule[] baseRules(Element element) {
+    TagStyle style = tags.get(element.getTagName().toLowerCase(Locale.ROOT));
+
+    if (style == null) {
+      return NO_BASE_RULES;
+    }
+
+    return style.baseRules;
+  }
+
+  // Gets the last base rule in cascade order that sets the property, or
+  // null if no base rule sets it
+  public Rule lastBaseRule(int propertyId) {
+    if (propertyId < 0 || propertyId >= lastBaseRule.length) {
+      return null;
+    }
+
+    return lastBaseRule[propertyId];
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> Value<T> initialValue(Element element, Property<T> property) {
+    int id = property.getId();
+    if (id < 0 || id >= residualByProperty.length) {
+      return null;
+    }
+
+    TagStyle style = tags.get(element.getTagName().toLowerCase(Locale.ROOT));
+    Value<T> value = null;
+    int order = Integer.MAX_VALUE;
+
+    if (style != null && style.initial[id] != null) {
+      value = (Value<T>) style.initial[id];
+      order = style.initialOrder[id];
+    }
+
+    // Usually empty, only rules that come before the tag's own value matter
+    for (IndexedRule residual : residualByProperty[id]) {
+      if (residual.order >= order) {
+        break;
+      }
+
+      if (residual.rule.matches(element)) {
+        return residual.rule.getPropertySet().orNull(property);
+      }
+    }
+
+    return value;
+  }
+
+  static class TagStyle {
+    PropertySet[] base = NO_SETS;
+    Rule[] baseRules = NO_BASE_RULES;
+
+    final Value<?>[] initial;
+    final int[] initialOrder;
+
+    TagStyle(int propertyCount) {
+      this.initial = new Value[propertyCount];
+      this.initialOrder = new int[propertyCount];
+    }
+  }
+
+  record IndexedRule(int order, Rule rule) {
+
+  }
+}
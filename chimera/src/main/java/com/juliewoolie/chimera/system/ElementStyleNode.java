@@ -2,13 +2,14 @@ package com.juliewoolie.chimera.system;
 
 import com.google.common.base.Strings;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
 import com.juliewoolie.chimera.InlineStyle;
+import com.juliewoolie.chimera.Properties;
 import com.juliewoolie.chimera.Property;
 import com.juliewoolie.chimera.PropertySet;
-import com.juliewoolie.chimera.PropertySet.PropertyIterator;
 import com.juliewoolie.chimera.Rule;
 import com.juliewoolie.chimera.StyleLoggers;
 import com.juliewoolie.chimera.Value;
@@ -17,21 +18,34 @@ import com.juliewoolie.chimera.parse.Chimera;
 import com.juliewoolie.chimera.parse.ChimeraContext;
 import com.juliewoolie.chimera.parse.ChimeraParser;
 import com.juliewoolie.chimera.parse.CompilerErrors;
-import com.juliewoolie.chimera.parse.Scope;
 import com.juliewoolie.chimera.parse.ast.InlineStyleStatement;
+import com.juliewoolie.chimera.selector.AncestorFilter;
+import com.juliewoolie.chimera.selector.Selector;
+import com.juliewoolie.dom.Attributes;
 import com.juliewoolie.dom.Element;
 
 @Getter
 public class ElementStyleNode extends StyleNode {
 
+  private static final Rule[] NO_RULES = new Rule[0];
+
   private final List<StyleNode> children = new ArrayList<>();
   private final PropertySet inlineStyleSet = new PropertySet();
 
   private final InlineStyle inlineApi;
 
+  // Inherited style of this element's children. The same instance as
+  // 'inherited' unless this element sets cascading properties itself
+  InheritedStyle childInherited = InheritedStyle.EMPTY;
+
   @Setter
   private boolean suppressingInlineUpdates = false;
 
+  // Set when the inline style was modified through the InlineStyle API and
+  // the 'style' attribute hasn't been regenerated from it yet
+  @Setter
+  private boolean inlineAttributeStale = false;
+
   public ElementStyleNode(Element domNode, StyleObjectModel system) {
     super(domNode, system);
 
@@ -40,35 +54,172 @@ public class ElementStyleNode extends StyleNode {
 
   @Override
   public void updateStyle() {
-    PropertySet newSet = new PropertySet();
-    applyCascading(newSet);
+    update(true);
+  }
+
+  // Restyles only this element, children are only restyled if this
+  // element's style actually changed, as they may inherit from it
+  public void updateSelfStyle() {
+    update(false);
+  }
+
+  private void update(boolean subtree) {
+    Element domElement = getDomNode();
+    AncestorFilter filter = system.ancestorFilter;
+    boolean ownsFilter = false;
+
+    // The filter is only valid if it was built for this element's parent,
+    // either by the parent's updateStyle call, or by this call walking up
+    // the ancestor chain once
+    if (!filter.isTop(domElement.getParent())) {
+      if (filter.isEmpty()) {
+        filter.pushAncestors(domElement);
+        ownsFilter = true;
+      } else {
+        filter = null;
+      }
+    }
+
+    system.stylePassDepth++;
+
+    try {
+      int changes = computeStyle(domElement, filter);
+
+      if (!subtree && changes == 0) {
+        return;
+      }
+
+      if (filter != null) {
+        filter.push(domElement);
+      }
+
+      try {
+        for (StyleNode child : children) {
+          child.updateStyle();
+        }
+      } finally {
+        if (filter != null) {
+          filter.pop();
+        }
+      }
+    } finally {
+      if (ownsFilter) {
+        filter.clear();
+      }
+
+      // Cached styles are only valid for the pass that produced them
+      if (--system.stylePassDepth == 0) {
+        system.sharingCache.clear();
+      }
+    }
+  }
 
+  public void updateChildStyles() {
     Element domElement = getDomNode();
+    AncestorFilter filter = system.ancestorFilter;
+
+    if (!filter.isEmpty()) {
+      for (StyleNode child : children) {
+        child.updateStyle();
+      }
+      return;
+    }
+
+    filter.pushAncestors(domElement);
+    filter.push(domElement);
+
+    try {
+      for (StyleNode child : children) {
+        child.updateStyle();
+      }
+    } finally {
+      filter.clear();
+    }
+  }
 
-    for (Rule rule : system.rules) {
-      if (!rule.getSelectorObject().test(domElement)) {
+  private int computeStyle(Element domElement, AncestorFilter filter) {
+    InheritedStyle previous = takeInherited();
+
+    ElementStyleNode shared = system.sharingCache.find(this);
+    if (shared != null) {
+      return applyStyle(shared.styleSet, previous);
+    }
+
+    // Scratch objects are only used until applyStyle copies the result
+    // into this node's own set, so one per system is enough
+    PropertySet newSet = system.scratchSet;
+    newSet.clear();
+
+    // Default tag styles are applied first, without any selector tests.
+    // Properties that another sheet's rule sets before the tag rule in the
+    // cascade are skipped here, and applied at the tag rule's place in the
+    // cascade below
+    DefaultStyleTable base = system.baseStyles;
+    BitSet conflicts = system.baseConflicts;
+    Rule[] baseRules = NO_RULES;
+    int nextBase = 0;
+
+    if (base != null) {
+      baseRules = base.baseRules(domElement);
+
+      for (Rule rule : baseRules) {
+        resolveSetTo(rule.getPropertySet(), newSet, conflicts, false);
+      }
+
+      if (conflicts.isEmpty()) {
+        baseRules = NO_RULES;
+      }
+    }
+
+    BitSet candidates = system.scratchCandidates;
+    system.ruleIndex.collectCandidates(domElement, candidates);
+
+    for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+      Rule rule = system.rules.get(i);
+      Selector selector = rule.getSelectorObject();
+
+      if (filter != null && !filter.mightMatch(selector)) {
         continue;
       }
+      if (!rule.matches(domElement)) {
+        continue;
+      }
+
+      while (nextBase < baseRules.length && system.cascadesBefore(baseRules[nextBase], rule)) {
+        resolveSetTo(baseRules[nextBase++].getPropertySet(), newSet, conflicts, true);
+      }
 
       resolveSetTo(rule.getPropertySet(), newSet);
     }
 
+    while (nextBase < baseRules.length) {
+      resolveSetTo(baseRules[nextBase++].getPropertySet(), newSet, conflicts, true);
+    }
+
     resolveSetTo(inlineStyleSet, newSet);
 
-    int changes = styleSet.setAll(newSet);
+    int changes = applyStyle(newSet, previous);
+    system.sharingCache.add(this);
 
-    if (changes != 0) {
-      computedSet.putAll(styleSet);
-      triggerCallback(changes);
-    }
+    return changes;
+  }
 
-    for (StyleNode child : children) {
-      child.updateStyle();
-    }
+  @Override
+  int applyStyle(PropertySet newSet, InheritedStyle previousInherited) {
+    int changes = super.applyStyle(newSet, previousInherited);
+    childInherited = inherited.derive(styleSet).reuse(childInherited);
+    return changes;
   }
 
   <T> void trySet(Property<T> property, Value<T> value, PropertySet target) {
     if (!target.has(property)) {
+      // An !important inherited value still beats the element's own
+      // normal declarations
+      Value<T> inheritedValue = inherited.orNull(property);
+      if (inheritedValue != null && inheritedValue.isImportant() && !value.isImportant()) {
+        return;
+      }
+
       target.setValue(property, value);
       return;
     }
@@ -87,13 +238,24 @@ public class ElementStyleNode extends StyleNode {
   }
 
   protected void resolveSetTo(PropertySet source, PropertySet target) {
-    PropertyIterator it = source.iterator();
+    resolveSetTo(source, target, null, false);
+  }
 
-    while (it.hasNext()) {
-      it.next();
+  // Only resolves the properties whose IDs are in the mask if 'inMask' is
+  // true, or only the ones not in it if false
+  private void resolveSetTo(
+      PropertySet source,
+      PropertySet target,
+      BitSet mask,
+      boolean inMask
+  ) {
+    for (int id = source.nextId(0); id >= 0; id = source.nextId(id + 1)) {
+      if (mask != null && mask.get(id) != inMask) {
+        continue;
+      }
 
-      Property<Object> property = it.property();
-      Value<Object> initial = it.value();
+      Property<Object> property = Properties.getById(id);
+      Value<Object> initial = source.valueAt(id);
 
       if (!initial.isEnabled()) {
         continue;
@@ -123,34 +285,18 @@ public class ElementStyleNode extends StyleNode {
         return null;
       }
 
-      return parent.getStyleSet().get(property);
+      return parent.getValue(property);
     }
     if (type == ValueType.UNSET) {
-      return Value.create(property.getDefaultValue());
+      return property.getDefaultStyleValue();
     }
 
     // type = INITIAL
-    if (system.defaultStyleSheet == null) {
+    if (system.defaultStyles == null) {
       return null;
     }
 
-    Element el = getDomNode();
-
-    for (int i = 0; i < system.defaultStyleSheet.getLength(); i++) {
-      Rule r = system.defaultStyleSheet.getRule(i);
-      if (!r.getSelectorObject().test(el)) {
-        continue;
-      }
-
-      Value<T> val = r.getPropertySet().orNull(property);
-      if (val == null) {
-        continue;
-      }
-
-      return val;
-    }
-
-    return null;
+    return system.defaultStyles.initialValue(getDomNode(), property);
   }
 
   @Override
@@ -162,11 +308,22 @@ public class ElementStyleNode extends StyleNode {
     if (suppressingInlineUpdates) {
       return;
     }
+
+    inlineAttributeStale = false;
+    inlineStyleSet.clear();
+
     if (Strings.isNullOrEmpty(inline)) {
-      inlineStyleSet.clear();
       return;
     }
 
+    PropertySet cached = InlineStyleCache.get(inline);
+    // Values are copied, the devtools toggle them on the element's own set
+    if (cached != null) {
+      inlineStyleSet.putAllCopies(cached);
+      return;
+    }
+
+    PropertySet compiled = new PropertySet();
     ChimeraParser parser = new ChimeraParser(inline);
 
     CompilerErrors errors = parser.getErrors();
@@ -183,10 +340,47 @@ public class ElementStyleNode extends StyleNode {
     ChimeraContext context = new ChimeraContext(parser.getStream().getInput());
     context.setErrors(errors);
 
-    Scope scope = Scope.createTopLevel();
-    scope.setVariableMap(getSystem().getVariables());
+    Chimera.compileInline(statement, compiled, context);
+
+    InlineStyleCache.put(inline, compiled);
+    inlineStyleSet.putAllCopies(compiled);
+  }
+
+  // Called after the inline style set was modified directly
+  public void inlineStyleChanged() {
+    Element element = getDomNode();
+
+    // Adding the attribute may change which [style] selectors match, so
+    // write it straight away
+    if (!element.hasAttribute(Attributes.STYLE)) {
+      inlineAttributeStale = false;
+      suppressingInlineUpdates = true;
+
+      try {
+        element.setAttribute(Attributes.STYLE, inlineStyleSet.toParseString());
+      } finally {
+        suppressingInlineUpdates = false;
+      }
+
+      return;
+    }
+
+    // Otherwise the attribute string is only generated when it's read
+    inlineAttributeStale = true;
+
+    int flags = system.invalidationSet.attributeFlags(Attributes.STYLE, null, null);
+    system.invalidate(element, flags | InvalidationSet.SELF);
+  }
+
+  // Returns the regenerated 'style' attribute value, or null, if the
+  // attribute is already up to date
+  public String takeStaleInlineAttribute() {
+    if (!inlineAttributeStale) {
+      return null;
+    }
 
-    Chimera.compileInline(statement, inlineStyleSet, context);
+    inlineAttributeStale = false;
+    return inlineStyleSet.toParseString();
   }
 
   public void addChild(StyleNode node, int idx) {
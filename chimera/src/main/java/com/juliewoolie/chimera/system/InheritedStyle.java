@@ -0,0 +1,99 @@
+package com.juliewoolie.chimera.system;
+
+import java.util.Objects;
+import lombok.Getter;
+import com.juliewoolie.chimera.Properties;
+import com.juliewoolie.chimera.Property;
+import com.juliewoolie.chimera.PropertySet;
+import com.juliewoolie.chimera.Value;
+
+// Cascading values an element passes down to its children. Instances are
+// never modified once created, so an element that doesn't set any
+// cascading property itself hands its parent's instance straight on, and
+// nodes only have to store the values they declare themselves
+public final class InheritedStyle {
+
+  public static final InheritedStyle EMPTY = new InheritedStyle(new PropertySet());
+
+  @Getter
+  private final PropertySet values;
+
+  private InheritedStyle(PropertySet values) {
+    this.values = values;
+  }
+
+  public <T> Value<T> orNull(Property<T> property) {
+    return values.orNull(property);
+  }
+
+  // Returns the style the children of a node with the 'own' values
+  // inherit. If 'own' doesn't override anything, returns this
+  InheritedStyle derive(PropertySet own) {
+    PropertySet merged = null;
+
+    for (int id = own.nextId(0); id >= 0; id = own.nextId(id + 1)) {
+      Property<Object> property = Properties.getById(id);
+
+      if (!property.isCascading()) {
+        continue;
+      }
+
+      Value<Object> value = own.valueAt(id);
+      if (Objects.equals(value, values.valueAt(id))) {
+        continue;
+      }
+
+      if (merged == null) {
+        merged = new PropertySet();
+        merged.putAll(values);
+      }
+
+      merged.setValue(property, value);
+    }
+
+    if (merged == null) {
+      return this;
+    }
+
+    return new InheritedStyle(merged);
+  }
+
+  // Returns 'previous' if it holds the same values as this, so children
+  // can keep comparing against the same instance
+  InheritedStyle reuse(InheritedStyle previous) {
+    if (previous == null || previous == this) {
+      return this;
+    }
+
+    return values.equals(previous.values) ? previous : this;
+  }
+
+  // Dirty bits of the inherited values that changed since 'previous' and
+  // aren't hidden by the node's own values
+  int changesSince(InheritedStyle previous, PropertySet own) {
+    if (previous == this) {
+      return 0;
+    }
+
+    PropertySet old = previous.values;
+    int dirtyBits = 0;
+
+    for (int id = values.nextId(0); id >= 0; id = values.nextId(id + 1)) {
+      if (own.valueAt(id) != null || Objects.equals(values.valueAt(id), old.valueAt(id))) {
+        continue;
+      }
+
+      dirtyBits |= Properties.getById(id).getDirtyBits();
+    }
+
+    for (int id = old.nextId(0); id >= 0; id = old.nextId(id + 1)) {
+      if (own.valueAt(id) != null || values.valueAt(id) != null) {
+        continue;
+      }
+
+      dirtyBits |= Properties.getById(id).getDirtyBits();
+    }
+
+    return dirtyBits;
+  }
+}
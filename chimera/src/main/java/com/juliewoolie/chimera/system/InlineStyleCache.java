@@ -0,0 +1,55 @@
+package com.juliewoolie.chimera.system;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import com.juliewoolie.chimera.PropertySet;
+
+// LRU cache of compiled 'style' attribute values, shared by all documents.
+// Inline styles don't have access to stylesheet variables, so the same
+// string always compiles to the same properties
+public final class InlineStyleCache {
+  private InlineStyleCache() {}
+
+  static final int MAX_ENTRIES = 512;
+
+  private static final Map<String, PropertySet> CACHE = new LinkedHashMap<>(64, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, PropertySet> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  private static long hits = 0;
+  private static long misses = 0;
+
+  // The returned set is shared, and must not be modified
+  public static synchronized PropertySet get(String inline) {
+    PropertySet set = CACHE.get(inline);
+
+    if (set == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+
+    return set;
+  }
+
+  public static synchronized void put(String inline, PropertySet compiled) {
+    CACHE.put(inline, compiled);
+  }
+
+  public static synchronized void clear() {
+    CACHE.clear();
+    hits = 0;
+    misses = 0;
+  }
+
+  public static synchronized long getHits() {
+    return hits;
+  }
+
+  public static synchronized long getMisses() {
+    return misses;
+  }
+}
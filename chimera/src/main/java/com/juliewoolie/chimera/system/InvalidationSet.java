@@ -0,0 +1,226 @@
+package com.juliewoolie.chimera.system;
+
+import com.google.common.base.Strings;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import java.util.List;
+import com.juliewoolie.chimera.Rule;
+import com.juliewoolie.chimera.StringUtil;
+import com.juliewoolie.chimera.selector.AttributeSelector;
+import com.juliewoolie.chimera.selector.ClassNameSelector;
+import com.juliewoolie.chimera.selector.Combinator;
+import com.juliewoolie.chimera.selector.GroupedIndexSelector;
+import com.juliewoolie.chimera.selector.IdSelector;
+import com.juliewoolie.chimera.selector.PseudoClass;
+import com.juliewoolie.chimera.selector.PseudoClassSelector;
+import com.juliewoolie.chimera.selector.PseudoElementSelector;
+import com.juliewoolie.chimera.selector.PseudoFuncSelector;
+import com.juliewoolie.chimera.selector.RegularSelector;
+import com.juliewoolie.chimera.selector.Selector;
+import com.juliewoolie.chimera.selector.SelectorList;
+import com.juliewoolie.chimera.selector.SelectorNode;
+import com.juliewoolie.dom.Attributes;
+
+// Records which attributes, classes, IDs and pseudo classes the current
+// rules depend on, and where in a selector that dependency is. A change to
+// one of these only has to restyle the elements the flags point to
+public class InvalidationSet {
+
+  // The changed element itself may match/unmatch
+  public static final int SELF = 0x1;
+
+  // The changed element's descendants may match/unmatch
+  public static final int DESCENDANTS = 0x2;
+
+  // The changed element's following siblings (and their descendants) may
+  // match/unmatch
+  public static final int SIBLINGS = 0x4;
+
+  private final Object2IntOpenHashMap<String> classes = new Object2IntOpenHashMap<>();
+  private final Object2IntOpenHashMap<String> ids = new Object2IntOpenHashMap<>();
+  private final Object2IntOpenHashMap<String> attributes = new Object2IntOpenHashMap<>();
+  private final int[] pseudoClasses = new int[PseudoClass.values().length];
+
+  private int pseudoElements = 0;
+  private boolean structural = false;
+
+  public void clear() {
+    classes.clear();
+    ids.clear();
+    attributes.clear();
+
+    for (int i = 0; i < pseudoClasses.length; i++) {
+      pseudoClasses[i] = 0;
+    }
+
+    pseudoElements = 0;
+    structural = false;
+  }
+
+  public void rebuild(List<Rule> rules) {
+    clear();
+
+    for (int i = 0; i < rules.size(); i++) {
+      addSelector(rules.get(i).getSelectorObject());
+    }
+  }
+
+  public void addSelector(Selector selector) {
+    collect(selector, SELF);
+  }
+
+  // True, if any rule depends on the order or amount of children an element
+  // has, meaning appending or removing a child affects its siblings
+  public boolean isStructural() {
+    return structural;
+  }
+
+  public int pseudoClassFlags(PseudoClass pseudoClass) {
+    return pseudoClasses[pseudoClass.ordinal()];
+  }
+
+  public int pseudoElementFlags() {
+    return pseudoElements;
+  }
+
+  public int attributeFlags(String key, String previous, String value) {
+    int flags = attributes.getInt(key);
+
+    if (key.equals(Attributes.CLASS)) {
+      flags |= changedClassFlags(previous, value);
+      flags |= changedClassFlags(value, previous);
+    } else if (key.equals(Attributes.ID)) {
+      flags |= idFlags(previous);
+      flags |= idFlags(value);
+    }
+
+    return flags;
+  }
+
+  private int idFlags(String id) {
+    if (Strings.isNullOrEmpty(id)) {
+      return 0;
+    }
+
+    return ids.getInt(id);
+  }
+
+  // Flags of every class in 'from' that isn't in 'to'
+  private int changedClassFlags(String from, String to) {
+    if (Strings.isNullOrEmpty(from) || classes.isEmpty()) {
+      return 0;
+    }
+
+    int flags = 0;
+    int len = from.length();
+    int start = -1;
+
+    for (int i = 0; i <= len; i++) {
+      boolean whitespace = i == len || Character.isWhitespace(from.charAt(i));
+
+      if (!whitespace) {
+        if (start == -1) {
+          start = i;
+        }
+        continue;
+      }
+
+      if (start == -1) {
+        continue;
+      }
+
+      String className = from.substring(start, i);
+      start = -1;
+
+      int classFlags = classes.getInt(className);
+      if (classFlags == 0) {
+        continue;
+      }
+      if (to != null && StringUtil.containsWord(to, className)) {
+        continue;
+      }
+
+      flags |= classFlags;
+    }
+
+    return flags;
+  }
+
+  private void collect(Selector selector, int position) {
+    switch (selector) {
+      case ClassNameSelector cl -> or(classes, cl.className(), position);
+      case IdSelector id -> or(ids, id.elementId(), position);
+      case AttributeSelector attr -> or(attributes, attr.attributeKey(), position);
+
+      case PseudoClassSelector pseudo -> {
+        pseudoClasses[pseudo.pseudo().ordinal()] |= position;
+
+        switch (pseudo.pseudo()) {
+          case DISABLED, ENABLED -> or(attributes, Attributes.ENABLED, position);
+
+          case FIRST_CHILD, LAST_CHILD, ONLY_CHILD,
+               FIRST_OF_TYPE, LAST_OF_TYPE, ONLY_OF_TYPE -> structural = true;
+
+          default -> {}
+        }
+      }
+
+      case PseudoElementSelector ignored -> pseudoElements |= position;
+
+      case PseudoFuncSelector<?> func -> {
+        Object argument = func.argument();
+
+        if (argument instanceof Selector arg) {
+          collect(arg, position);
+          return;
+        }
+
+        structural = true;
+
+        if (argument instanceof GroupedIndexSelector grouped) {
+          collect(grouped.group(), position | SIBLINGS);
+        }
+      }
+
+      case SelectorNode node -> collect(node.getSelector(), position);
+
+      case SelectorList list -> {
+        for (int i = 0; i < list.getSize(); i++) {
+          collect(list.get(i), position);
+        }
+      }
+
+      case RegularSelector regular -> collectRegular(regular.getNodes(), position);
+
+      default -> {}
+    }
+  }
+
+  private void collectRegular(SelectorNode[] nodes, int position) {
+    for (int i = nodes.length - 1; i >= 0; i--) {
+      SelectorNode node = nodes[i];
+      collect(node.getSelector(), position);
+
+      if (i == 0) {
+        break;
+      }
+
+      // The combinator determines how the previous node relates to this one
+      Combinator combinator = node.getCombinator();
+
+      switch (combinator) {
+        case DESCENDANT, PARENT -> position = DESCENDANTS;
+
+        case SIBLING, DIRECT_SIBLING -> {
+          position = SIBLINGS;
+          structural = true;
+        }
+
+        default -> {}
+      }
+    }
+  }
+
+  private static void or(Object2IntOpenHashMap<String> map, String key, int flags) {
+    map.put(key, map.getInt(key) | flags);
+  }
+}
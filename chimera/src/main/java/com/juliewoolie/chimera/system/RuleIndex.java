@@ -0,0 +1,261 @@
+package com.juliewoolie.chimera.system;
+
+import com.google.common.base.Strings;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import com.juliewoolie.chimera.Rule;
+import com.juliewoolie.chimera.selector.ClassNameSelector;
+import com.juliewoolie.chimera.selector.IdSelector;
+import com.juliewoolie.chimera.selector.RegularSelector;
+import com.juliewoolie.chimera.selector.Selector;
+import com.juliewoolie.chimera.selector.SelectorList;
+import com.juliewoolie.chimera.selector.SelectorList.ListType;
+import com.juliewoolie.chimera.selector.SelectorNode;
+import com.juliewoolie.chimera.selector.TagNameSelector;
+import com.juliewoolie.dom.Element;
+
+// Buckets rules by the key of their rightmost compound selector. Rules are
+// stored as their index in the specificity-sorted rule list, so iterating
+// over a candidate bit set yields them in cascade order.
+// Rules from scoped stylesheets get their own buckets per scope element,
+// and are only collected for elements inside that scope
+public class RuleIndex {
+
+  static final int KEY_ID = 0;
+  static final int KEY_CLASS = 1;
+  static final int KEY_TAG = 2;
+
+  private final Buckets global = new Buckets();
+  private final Map<Element, Buckets> scoped = new Reference2ObjectOpenHashMap<>();
+
+  private int size = 0;
+
+  public void clear() {
+    global.clear();
+    scoped.clear();
+    size = 0;
+  }
+
+  public void rebuild(List<Rule> sortedRules) {
+    rebuild(sortedRules, rule -> null);
+  }
+
+  public void rebuild(List<Rule> sortedRules, Function<Rule, Element> scopeOf) {
+    clear();
+
+    for (int i = 0; i < sortedRules.size(); i++) {
+      Rule rule = sortedRules.get(i);
+      Element scope = scopeOf.apply(rule);
+
+      Buckets buckets = scope == null
+          ? global
+          : scoped.computeIfAbsent(scope, e -> new Buckets());
+
+      buckets.add(rule, i);
+    }
+
+    size = sortedRules.size();
+  }
+
+  public void collectCandidates(Element element, BitSet out) {
+    out.clear();
+
+    if (size < 1) {
+      return;
+    }
+
+    global.collect(element, out);
+
+    if (scoped.isEmpty()) {
+      return;
+    }
+
+    // A scope includes the element it's attached to
+    for (Element p = element; p != null; p = p.getParent()) {
+      Buckets buckets = scoped.get(p);
+
+      if (buckets != null) {
+        buckets.collect(element, out);
+      }
+    }
+  }
+
+  private static void setAll(IntArrayList bucket, BitSet out) {
+    if (bucket == null) {
+      return;
+    }
+
+    for (int i = 0; i < bucket.size(); i++) {
+      out.set(bucket.getInt(i));
+    }
+  }
+
+  // Returns false if the selector cannot be bucketed, otherwise an element
+  // has to have at least one of the collected keys to match the selector
+  static boolean collectKeys(Selector selector, List<RuleKey> out) {
+    switch (selector) {
+      case IdSelector id -> {
+        out.add(new RuleKey(KEY_ID, id.elementId()));
+        return true;
+      }
+      case ClassNameSelector cl -> {
+        out.add(new RuleKey(KEY_CLASS, cl.className()));
+        return true;
+      }
+      case TagNameSelector tag -> {
+        out.add(new RuleKey(KEY_TAG, tag.tagName().toLowerCase(Locale.ROOT)));
+        return true;
+      }
+
+      case SelectorNode node -> {
+        return collectKeys(node.getSelector(), out);
+      }
+
+      case RegularSelector regular -> {
+        SelectorNode[] nodes = regular.getNodes();
+        if (nodes.length < 1) {
+          return false;
+        }
+
+        return collectKeys(nodes[nodes.length - 1], out);
+      }
+
+      case SelectorList list -> {
+        if (list.getType() == ListType.OR) {
+          return collectOrKeys(list, out);
+        }
+
+        return collectAndKeys(list, out);
+      }
+
+      default -> {
+        return false;
+      }
+    }
+  }
+
+  private static boolean collectOrKeys(SelectorList list, List<RuleKey> out) {
+    if (list.getSize() < 1) {
+      return false;
+    }
+
+    List<RuleKey> keys = new ArrayList<>(list.getSize());
+
+    for (int i = 0; i < list.getSize(); i++) {
+      // If any of the list's selectors is un-keyable, then so is the list
+      if (!collectKeys(list.get(i), keys)) {
+        return false;
+      }
+    }
+
+    out.addAll(keys);
+    return true;
+  }
+
+  private static boolean collectAndKeys(SelectorList list, List<RuleKey> out) {
+    List<RuleKey> best = null;
+    List<RuleKey> keys = new ArrayList<>(1);
+
+    // Every selector in the compound has to match, so the keys of any one
+    // of them are enough, prefer a single key in the order: id, class, tag
+    for (int i = 0; i < list.getSize(); i++) {
+      keys.clear();
+
+      if (!collectKeys(list.get(i), keys)) {
+        continue;
+      }
+
+      if (best == null || isBetter(keys, best)) {
+        best = new ArrayList<>(keys);
+      }
+    }
+
+    if (best == null) {
+      return false;
+    }
+
+    out.addAll(best);
+    return true;
+  }
+
+  private static boolean isBetter(List<RuleKey> keys, List<RuleKey> current) {
+    if (keys.size() != current.size()) {
+      return keys.size() < current.size();
+    }
+
+    return keys.getFirst().type() < current.getFirst().type();
+  }
+
+  record RuleKey(int type, String value) {
+
+  }
+
+  static class Buckets {
+    private final Map<String, IntArrayList> idRules = new HashMap<>();
+    private final Map<String, IntArrayList> classRules = new HashMap<>();
+    private final Map<String, IntArrayList> tagRules = new HashMap<>();
+    private final IntArrayList universalRules = new IntArrayList();
+
+    void clear() {
+      idRules.clear();
+      classRules.clear();
+      tagRules.clear();
+      universalRules.clear();
+    }
+
+    void add(Rule rule, int order) {
+      List<RuleKey> keys = new ArrayList<>(1);
+
+      if (!collectKeys(rule.getSelectorObject(), keys)) {
+        universalRules.add(order);
+        return;
+      }
+
+      for (int i = 0; i < keys.size(); i++) {
+        RuleKey key = keys.get(i);
+        Map<String, IntArrayList> map = bucketMap(key.type());
+
+        IntArrayList bucket = map.computeIfAbsent(key.value(), s -> new IntArrayList());
+
+        // Selector lists may produce the same key twice, eg: '.a.b, .a'
+        if (!bucket.isEmpty() && bucket.getInt(bucket.size() - 1) == order) {
+          continue;
+        }
+
+        bucket.add(order);
+      }
+    }
+
+    private Map<String, IntArrayList> bucketMap(int keyType) {
+      return switch (keyType) {
+        case KEY_ID -> idRules;
+        case KEY_CLASS -> classRules;
+        default -> tagRules;
+      };
+    }
+
+    void collect(Element element, BitSet out) {
+      setAll(universalRules, out);
+
+      String id = element.getId();
+      if (!Strings.isNullOrEmpty(id)) {
+        setAll(idRules.get(id), out);
+      }
+
+      if (!classRules.isEmpty() && !Strings.isNullOrEmpty(element.getClassName())) {
+        for (String className : element.getClassList()) {
+          setAll(classRules.get(className), out);
+        }
+      }
+
+      setAll(tagRules.get(element.getTagName().toLowerCase(Locale.ROOT)), out);
+    }
+  }
+}
@@ -1,14 +1,16 @@
 package com.juliewoolie.chimera.system;
 
+import java.util.Set;
 import lombok.Getter;
 import com.juliewoolie.chimera.ComputedStyleSet;
+import com.juliewoolie.chimera.Properties;
 import com.juliewoolie.chimera.Property;
 import com.juliewoolie.chimera.PropertySet;
-import com.juliewoolie.chimera.PropertySet.PropertyIterator;
 import com.juliewoolie.chimera.ReadonlyProperties;
 import com.juliewoolie.chimera.StyleUpdateCallbacks;
 import com.juliewoolie.chimera.Value;
 import com.juliewoolie.dom.Node;
+import org.jetbrains.annotations.NotNull;
 
 @Getter
 public class StyleNode {
@@ -16,34 +18,53 @@ public class StyleNode {
   final Node domNode;
   final StyleObjectModel system;
 
+  // Only the values set on this node itself, cascading values from the
+  // parent are looked up through 'inherited'
   final PropertySet styleSet;
   final ReadonlyProperties currentStyle;
 
   final ComputedStyleSet computedSet;
 
   ElementStyleNode parent;
+  InheritedStyle inherited = InheritedStyle.EMPTY;
 
   public StyleNode(Node domNode, StyleObjectModel system) {
     this.domNode = domNode;
     this.system = system;
 
     this.styleSet = new PropertySet();
-    this.currentStyle = new ReadonlyProperties(styleSet);
+    this.currentStyle = new CurrentStyle(styleSet);
 
     this.computedSet = new ComputedStyleSet();
   }
 
   public void updateStyle() {
-    PropertySet newSet = new PropertySet();
-    applyCascading(newSet);
+    InheritedStyle previous = takeInherited();
 
+    PropertySet newSet = system.scratchSet;
+    newSet.clear();
+
+    applyStyle(newSet, previous);
+  }
+
+  // Picks up the parent's current inherited style and returns the one
+  // this node had before
+  InheritedStyle takeInherited() {
+    InheritedStyle previous = inherited;
+    inherited = parent == null ? InheritedStyle.EMPTY : parent.childInherited;
+    return previous;
+  }
+
+  int applyStyle(PropertySet newSet, InheritedStyle previousInherited) {
     int changes = styleSet.setAll(newSet);
-    if (changes == 0) {
-      return;
+    changes |= inherited.changesSince(previousInherited, styleSet);
+
+    if (changes != 0) {
+      computedSet.putAll(styleSet, inherited.getValues());
+      triggerCallback(changes);
     }
 
-    computedSet.putAll(styleSet);
-    triggerCallback(changes);
+    return changes;
   }
 
   void triggerCallback(int changes) {
@@ -55,28 +76,42 @@ public class StyleNode {
     updateCallbacks.styleUpdated(this, changes);
   }
 
-  void applyCascading(PropertySet out) {
-    if (parent == null) {
-      return;
+  // Value of the property, either set on this node or inherited
+  public <T> Value<T> getValue(Property<T> property) {
+    Value<T> value = styleSet.orNull(property);
+    if (value != null) {
+      return value;
     }
 
-    PropertySet parentSet = parent.getStyleSet();
-    PropertyIterator iterator = parentSet.iterator();
+    return inherited.getValues().get(property);
+  }
 
-    while (iterator.hasNext()) {
-      iterator.next();
+  class CurrentStyle extends ReadonlyProperties {
 
-      Property<Object> prop = iterator.property();
+    CurrentStyle(PropertySet set) {
+      super(set);
+    }
 
-      if (!prop.isCascading() /*&& !(node instanceof ElementStyleNode)*/) {
-        continue;
+    @Override
+    protected <T> Value<T> lookup(Property<T> prop) {
+      Value<T> value = set.orNull(prop);
+      if (value != null) {
+        return value;
       }
-      if (out.has(prop)) {
-        continue;
+
+      return inherited.orNull(prop);
+    }
+
+    @Override
+    public @NotNull Set<String> getProperties() {
+      Set<String> names = super.getProperties();
+      PropertySet values = inherited.getValues();
+
+      for (int id = values.nextId(0); id >= 0; id = values.nextId(id + 1)) {
+        names.add(Properties.getById(id).getKey());
       }
 
-      Value<Object> value = iterator.value();
-      out.setValue(prop, value);
+      return names;
     }
   }
 }
@@ -1,6 +1,10 @@
 package com.juliewoolie.chimera.system;
 
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -9,12 +13,16 @@ import lombok.Getter;
 import lombok.Setter;
 import com.juliewoolie.chimera.ChimeraSheetBuilder;
 import com.juliewoolie.chimera.ChimeraStylesheet;
+import com.juliewoolie.chimera.PropertySet;
 import com.juliewoolie.chimera.Rule;
 import com.juliewoolie.chimera.StyleUpdateCallbacks;
+import com.juliewoolie.chimera.selector.AncestorFilter;
+import com.juliewoolie.chimera.selector.PseudoClass;
 import com.juliewoolie.dom.Attributes;
 import com.juliewoolie.dom.Document;
 import com.juliewoolie.dom.Element;
 import com.juliewoolie.dom.Node;
+import com.juliewoolie.dom.NodeFlag;
 import com.juliewoolie.dom.event.AttributeMutateEvent;
 import com.juliewoolie.dom.event.Event;
 import com.juliewoolie.dom.event.EventListener;
@@ -23,6 +31,7 @@ import com.juliewoolie.dom.event.EventTypes;
 import com.juliewoolie.dom.event.MutationEvent;
 import com.juliewoolie.dom.style.StyleProperties;
 import com.juliewoolie.dom.style.StylePropertiesReadonly;
+import org.jetbrains.annotations.Nullable;
 
 @Getter
 public class StyleObjectModel {
@@ -30,19 +39,50 @@ public class StyleObjectModel {
   private final Document document;
 
   final List<ChimeraStylesheet> sheets = new ArrayList<>();
+
+  // Scoped stylesheet -> element its rules are limited to
+  final Map<ChimeraStylesheet, Element> scopes = new Reference2ObjectOpenHashMap<>();
   final List<Rule> rules = new ArrayList<>();
+  final RuleIndex ruleIndex = new RuleIndex();
+  final AncestorFilter ancestorFilter = new AncestorFilter();
+  final InvalidationSet invalidationSet = new InvalidationSet();
+  final StyleSharingCache sharingCache = new StyleSharingCache(this);
+
+  int stylePassDepth = 0;
+
+  final PropertySet scratchSet = new PropertySet();
+  final BitSet scratchCandidates = new BitSet();
 
   private final Map<Node, StyleNode> styleNodes = new HashMap<>();
   private ElementStyleNode rootNode;
 
   final Map<String, Object> variables = new HashMap<>();
 
-  @Setter
   ChimeraStylesheet defaultStyleSheet;
+  DefaultStyleTable defaultStyles;
+
+  // Set while the default sheet is added to this document, its tag rules
+  // are then applied as each element's base style, and only the residual
+  // rules are kept in the rule list
+  DefaultStyleTable baseStyles;
+
+  // IDs of the base style properties also set by another sheet's rule
+  // that comes before the base rule in the cascade. Those properties
+  // can't be applied up front, they're applied in cascade order instead
+  final BitSet baseConflicts = new BitSet();
 
   @Setter
   StyleUpdateCallbacks updateCallbacks;
 
+  // When true, style changes only mark nodes as dirty, and the actual
+  // restyle happens when flushStyles is called
+  @Setter
+  boolean deferringUpdates = false;
+  private boolean flushing = false;
+
+  // Dirty node -> InvalidationSet.SELF or InvalidationSet.DESCENDANTS
+  private final Reference2IntOpenHashMap<StyleNode> dirtyNodes = new Reference2IntOpenHashMap<>();
+
   public StyleObjectModel(Document document) {
     this.document = document;
   }
@@ -67,10 +107,6 @@ public class StyleObjectModel {
     l.addEventListener(EventTypes.REMOVE_CHILD, updateListener);
 
     l.addEventListener(EventTypes.MODIFY_ATTR, updateListener);
-
-    l.addEventListener(EventTypes.CLICK_EXPIRE, updateListener);
-    l.addEventListener(EventTypes.CLICK, updateListener);
-
     l.addEventListener(EventTypes.INPUT, updateListener);
 
     if (document.getDocumentElement() != null) {
@@ -78,27 +114,239 @@ public class StyleObjectModel {
     }
   }
 
+  public void setDefaultStyleSheet(ChimeraStylesheet defaultStyleSheet) {
+    this.defaultStyleSheet = defaultStyleSheet;
+    this.defaultStyles = defaultStyleSheet == null ? null : DefaultStyleTable.of(defaultStyleSheet);
+  }
+
   public void addStylesheet(ChimeraStylesheet stylesheet) {
+    addStylesheet(stylesheet, null);
+  }
+
+  // Adds a stylesheet whose rules only apply to the scope element and its
+  // descendants, or to the whole document if the scope is null
+  public void addStylesheet(ChimeraStylesheet stylesheet, @Nullable Element scope) {
     sheets.addLast(stylesheet);
 
+    if (scope != null) {
+      scopes.put(stylesheet, scope);
+    }
+
+    List<Rule> added = addRules(stylesheet);
+    rulesChanged(added);
+  }
+
+  Element scopeOf(Rule rule) {
+    if (scopes.isEmpty()) {
+      return null;
+    }
+
+    return scopes.get(rule.getStylesheet());
+  }
+
+  // Merges the sheet's rules into the sorted rule list. Both lists are
+  // sorted, so a single merge pass is enough, existing rules win ties to
+  // keep source order the same as a full stable sort would. Returns all
+  // the sheet's rules, even the ones applied as base styles
+  private List<Rule> addRules(ChimeraStylesheet stylesheet) {
+    List<Rule> sheetRules = new ArrayList<>(stylesheet.getLength());
+    for (int i = 0; i < stylesheet.getLength(); i++) {
+      sheetRules.add(stylesheet.getRule(i));
+    }
+
+    List<Rule> added;
+
+    if (stylesheet == defaultStyleSheet && defaultStyles != null && baseStyles == null) {
+      baseStyles = defaultStyles;
+      added = new ArrayList<>(defaultStyles.getResidualRules());
+    } else {
+      added = new ArrayList<>(sheetRules);
+    }
+
+    if (added.isEmpty()) {
+      return sheetRules;
+    }
+
+    added.sort(Comparator.naturalOrder());
+
+    List<Rule> merged = new ArrayList<>(rules.size() + added.size());
+    int i = 0;
+    int j = 0;
+
+    while (i < rules.size() && j < added.size()) {
+      Rule existing = rules.get(i);
+      Rule rule = added.get(j);
+
+      if (rule.compareTo(existing) < 0) {
+        merged.add(rule);
+        j++;
+      } else {
+        merged.add(existing);
+        i++;
+      }
+    }
+
+    merged.addAll(rules.subList(i, rules.size()));
+    merged.addAll(added.subList(j, added.size()));
+
+    rules.clear();
+    rules.addAll(merged);
+
+    return sheetRules;
+  }
+
+  private List<Rule> removeRules(ChimeraStylesheet stylesheet) {
+    if (baseStyles != null && baseStyles.getSheet() == stylesheet) {
+      baseStyles = null;
+    }
+
+    List<Rule> removed = new ArrayList<>(stylesheet.getLength());
+    ReferenceOpenHashSet<Rule> removedSet = new ReferenceOpenHashSet<>(stylesheet.getLength());
+
     for (int i = 0; i < stylesheet.getLength(); i++) {
       Rule r = stylesheet.getRule(i);
-      rules.addLast(r);
+      removed.add(r);
+      removedSet.add(r);
+    }
+
+    if (!removed.isEmpty()) {
+      rules.removeIf(removedSet::contains);
+    }
+
+    return removed;
+  }
+
+  private void rulesChanged(List<Rule> changed) {
+    ruleIndex.rebuild(rules, this::scopeOf);
+    invalidationSet.rebuild(rules);
+    updateBaseConflicts();
+
+    if (rootNode == null || changed.isEmpty()) {
+      return;
+    }
+
+    // If all the changed rules are scoped to the same element, then only
+    // that element's subtree can be affected
+    ElementStyleNode start = rootNode;
+    Element scope = commonScope(changed);
+
+    if (scope != null) {
+      start = getStyleNode(scope) instanceof ElementStyleNode scopeNode ? scopeNode : null;
+
+      if (start == null) {
+        return;
+      }
+    }
+
+    // Only elements that match one of the added/removed rules can have a
+    // different style now, changes to inherited values are passed down to
+    // children by the restyle itself
+    RuleIndex changedIndex = new RuleIndex();
+    changedIndex.rebuild(changed, this::scopeOf);
+
+    List<ElementStyleNode> matching = new ArrayList<>();
+    collectMatching(start, changed, changedIndex, new BitSet(changed.size()), matching);
+
+    for (int i = 0; i < matching.size(); i++) {
+      restyle(matching.get(i), false);
     }
+  }
+
+  private void updateBaseConflicts() {
+    baseConflicts.clear();
 
-    rules.sort(Comparator.naturalOrder());
+    if (baseStyles == null) {
+      return;
+    }
 
-    if (rootNode != null) {
-      rootNode.updateStyle();
+    ChimeraStylesheet baseSheet = baseStyles.getSheet();
+
+    for (int i = 0; i < rules.size(); i++) {
+      Rule rule = rules.get(i);
+
+      // Residual rules of the default sheet were already accounted for
+      // when the base styles were built
+      if (rule.getStylesheet() == baseSheet) {
+        continue;
+      }
+
+      PropertySet set = rule.getPropertySet();
+
+      for (int id = set.nextId(0); id >= 0; id = set.nextId(id + 1)) {
+        if (baseConflicts.get(id)) {
+          continue;
+        }
+
+        Rule base = baseStyles.lastBaseRule(id);
+        if (base != null && cascadesBefore(rule, base)) {
+          baseConflicts.set(id);
+        }
+      }
+    }
+  }
+
+  // Whether the first rule comes before the second in the cascade. Rules
+  // with the same specificity are in the order their sheets were added
+  boolean cascadesBefore(Rule first, Rule second) {
+    int cmp = first.compareTo(second);
+    if (cmp != 0) {
+      return cmp < 0;
+    }
+
+    return sheets.indexOf(first.getStylesheet()) < sheets.indexOf(second.getStylesheet());
+  }
+
+  private Element commonScope(List<Rule> changed) {
+    Element scope = scopeOf(changed.getFirst());
+
+    for (int i = 1; i < changed.size() && scope != null; i++) {
+      if (scopeOf(changed.get(i)) != scope) {
+        return null;
+      }
+    }
+
+    return scope;
+  }
+
+  private void collectMatching(
+      ElementStyleNode node,
+      List<Rule> changed,
+      RuleIndex changedIndex,
+      BitSet candidates,
+      List<ElementStyleNode> out
+  ) {
+    Element element = node.getDomNode();
+    changedIndex.collectCandidates(element, candidates);
+
+    for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+      if (changed.get(i).matches(element)) {
+        out.add(node);
+        break;
+      }
+    }
+
+    for (StyleNode child : node.getChildren()) {
+      if (child instanceof ElementStyleNode elChild) {
+        collectMatching(elChild, changed, changedIndex, candidates, out);
+      }
     }
   }
 
   public StylePropertiesReadonly getCurrentStyle(Node node) {
+    flushStyles();
+
     StyleNode style = getStyleNode(node);
     if (style == null) {
       style = createNode(node);
     }
 
+    // Text nodes aren't part of the style tree, they only ever have their
+    // parent's inherited values, so pick those up when asked for
+    if (!(style instanceof ElementStyleNode)) {
+      style.parent = parentNode(node);
+      style.takeInherited();
+    }
+
     return style.getCurrentStyle();
   }
 
@@ -111,14 +359,21 @@ public class StyleObjectModel {
     return ((ElementStyleNode) node).getInlineApi();
   }
 
+  // Only elements get a style node up front. Text nodes are styled by
+  // their parent element, and only get a node of their own if a script
+  // asks for their style
   public StyleNode createNode(Node node) {
     StyleNode n = getStyleNode(node);
 
     if (n != null) {
       if (node instanceof Element el) {
         ElementStyleNode esn = (ElementStyleNode) n;
+        int idx = 0;
+
         for (Node child : el.getChildren()) {
-          esn.addChild(createNode(child), child.getSiblingIndex());
+          if (child instanceof Element) {
+            esn.addChild(createNode(child), idx++);
+          }
         }
       }
 
@@ -130,16 +385,45 @@ public class StyleObjectModel {
       n = elNode;
 
       for (Node child : element.getChildren()) {
-        elNode.addChild(createNode(child), elNode.getChildren().size());
+        if (child instanceof Element) {
+          elNode.addChild(createNode(child), elNode.getChildren().size());
+        }
       }
     } else {
       n = new StyleNode(node, this);
+      n.parent = parentNode(node);
     }
 
     styleNodes.put(node, n);
     return n;
   }
 
+  private ElementStyleNode parentNode(Node node) {
+    Element parent = node.getParent();
+    if (parent == null) {
+      return null;
+    }
+
+    return (ElementStyleNode) getStyleNode(parent);
+  }
+
+  // Index of an element among its parent's style children, which skip
+  // over text nodes
+  private static int styleChildIndex(Element parent, Node node) {
+    int idx = 0;
+
+    for (Node child : parent.getChildren()) {
+      if (child == node) {
+        break;
+      }
+      if (child instanceof Element) {
+        idx++;
+      }
+    }
+
+    return idx;
+  }
+
   public StyleNode getStyleNode(Node node) {
     return styleNodes.get(node);
   }
@@ -152,10 +436,14 @@ public class StyleObjectModel {
     if (rootNode == null) {
       return;
     }
+
+    dirtyNodes.clear();
     rootNode.updateStyle();
   }
 
   public void updateDomStyle(Node domNode) {
+    flushStyles();
+
     StyleNode node = getStyleNode(domNode);
     if (node == null) {
       return;
@@ -164,28 +452,197 @@ public class StyleObjectModel {
     node.updateStyle();
   }
 
+  public void flagChanged(Node domNode, NodeFlag flag) {
+    if (!(domNode instanceof Element element)) {
+      return;
+    }
+
+    PseudoClass pseudo = switch (flag) {
+      case HOVERED -> PseudoClass.HOVER;
+      case CLICKED -> PseudoClass.ACTIVE;
+      case ROOT -> PseudoClass.ROOT;
+      default -> null;
+    };
+
+    if (pseudo == null) {
+      return;
+    }
+
+    invalidate(element, invalidationSet.pseudoClassFlags(pseudo));
+  }
+
+  public void invalidate(Element element, int flags) {
+    if (flags == 0) {
+      return;
+    }
+
+    StyleNode node = getStyleNode(element);
+    if (!(node instanceof ElementStyleNode elNode)) {
+      return;
+    }
+
+    if ((flags & InvalidationSet.DESCENDANTS) != 0) {
+      restyle(elNode, true);
+    } else if ((flags & InvalidationSet.SELF) != 0) {
+      restyle(elNode, false);
+    }
+
+    if ((flags & InvalidationSet.SIBLINGS) != 0) {
+      updateFollowingSiblings(elNode);
+    }
+  }
+
+  private void updateFollowingSiblings(StyleNode node) {
+    ElementStyleNode parent = node.parent;
+    if (parent == null) {
+      return;
+    }
+
+    List<StyleNode> siblings = parent.getChildren();
+    int idx = siblings.indexOf(node);
+
+    for (int i = idx + 1; i < siblings.size(); i++) {
+      restyle(siblings.get(i), true);
+    }
+  }
+
+  private void restyleChildren(ElementStyleNode node) {
+    if (!deferringUpdates) {
+      node.updateChildStyles();
+      return;
+    }
+
+    for (StyleNode child : node.getChildren()) {
+      restyle(child, true);
+    }
+  }
+
+  void restyle(StyleNode node, boolean subtree) {
+    if (deferringUpdates) {
+      int flag = subtree ? InvalidationSet.DESCENDANTS : InvalidationSet.SELF;
+      dirtyNodes.put(node, dirtyNodes.getInt(node) | flag);
+      return;
+    }
+
+    if (!subtree && node instanceof ElementStyleNode el) {
+      el.updateSelfStyle();
+    } else {
+      node.updateStyle();
+    }
+  }
+
+  public boolean hasPendingUpdates() {
+    return !dirtyNodes.isEmpty();
+  }
+
+  // Restyles every node marked dirty since the last flush in a single top
+  // down pass. Nodes inside an already dirty subtree are skipped
+  public void flushStyles() {
+    if (dirtyNodes.isEmpty() || flushing) {
+      return;
+    }
+
+    flushing = true;
+
+    try {
+      // Style callbacks may cause more nodes to be marked dirty
+      while (!dirtyNodes.isEmpty()) {
+        Reference2IntOpenHashMap<StyleNode> pending = new Reference2IntOpenHashMap<>(dirtyNodes);
+        dirtyNodes.clear();
+
+        List<StyleNode> nodes = new ArrayList<>(pending.keySet());
+        nodes.sort(Comparator.comparingInt(StyleObjectModel::depth));
+
+        for (StyleNode node : nodes) {
+          // Removed from the tree since being marked
+          if (styleNodes.get(node.domNode) != node) {
+            continue;
+          }
+          if (hasDirtyAncestor(node, pending)) {
+            continue;
+          }
+
+          int flags = pending.getInt(node);
+
+          if ((flags & InvalidationSet.DESCENDANTS) != 0
+              || !(node instanceof ElementStyleNode el)
+          ) {
+            node.updateStyle();
+          } else {
+            el.updateSelfStyle();
+          }
+        }
+      }
+    } finally {
+      flushing = false;
+    }
+  }
+
+  private static boolean hasDirtyAncestor(StyleNode node, Reference2IntOpenHashMap<StyleNode> dirty) {
+    ElementStyleNode p = node.parent;
+
+    while (p != null) {
+      if ((dirty.getInt(p) & InvalidationSet.DESCENDANTS) != 0) {
+        return true;
+      }
+
+      p = p.parent;
+    }
+
+    return false;
+  }
+
+  private static int depth(StyleNode node) {
+    int depth = 0;
+    ElementStyleNode p = node.parent;
+
+    while (p != null) {
+      depth++;
+      p = p.parent;
+    }
+
+    return depth;
+  }
+
   public void replaceStylesheet(ChimeraStylesheet old, ChimeraStylesheet stylesheet) {
+    replaceStylesheet(old, stylesheet, null);
+  }
+
+  public void replaceStylesheet(
+      ChimeraStylesheet old,
+      ChimeraStylesheet stylesheet,
+      @Nullable Element scope
+  ) {
+    List<Rule> changed = new ArrayList<>();
+
     if (old != null) {
       sheets.remove(old);
-      for (int i = 0; i < old.getLength(); i++) {
-        Rule r = old.getRule(i);
-        rules.remove(r);
-      }
+      changed.addAll(removeRules(old));
     }
 
-    addStylesheet(stylesheet);
+    sheets.addLast(stylesheet);
+
+    if (scope != null) {
+      scopes.put(stylesheet, scope);
+    }
+
+    changed.addAll(addRules(stylesheet));
+    rulesChanged(changed);
+
+    // The old sheet's scope was still needed to find the elements its
+    // rules applied to
+    if (old != null && old != stylesheet) {
+      scopes.remove(old);
+    }
   }
 
   public void removeStylesheet(ChimeraStylesheet stylesheet) {
     sheets.remove(stylesheet);
-    for (int i = 0; i < stylesheet.getLength(); i++) {
-      Rule r = stylesheet.getRule(i);
-      rules.remove(r);
-    }
 
-    if (rootNode != null) {
-      rootNode.updateStyle();
-    }
+    List<Rule> removed = removeRules(stylesheet);
+    rulesChanged(removed);
+
+    scopes.remove(stylesheet);
   }
 
   public void removeNode(Node node) {
@@ -197,6 +654,7 @@ public class StyleObjectModel {
     ElementStyleNode parent = remove.parent;
     if (parent != null) {
       parent.removeChild(remove);
+      remove.parent = null;
     }
 
     if (node instanceof Element el) {
@@ -227,10 +685,15 @@ public class StyleObjectModel {
       }
 
       if (event.getType().equals(EventTypes.APPEND_CHILD)) {
-        StyleNode childNode = createNode(event.getNode());
+        if (!(event.getNode() instanceof Element added)) {
+          return;
+        }
+
+        StyleNode childNode = createNode(added);
 
         if (parentNode != null) {
-          parentNode.addChild(childNode, event.getMutationIndex());
+          int idx = styleChildIndex(event.getTarget(), added);
+          parentNode.addChild(childNode, idx);
         } else {
           rootNode = (ElementStyleNode) childNode;
         }
@@ -267,10 +730,49 @@ public class StyleObjectModel {
 
     @Override
     public void onEvent(Event event) {
-      StyleNode styleNode = getStyleNode(event.getTarget());
+      Element target = event.getTarget();
+      StyleNode styleNode = getStyleNode(target);
+
+      if (styleNode == null) {
+        return;
+      }
+
+      switch (event) {
+        case AttributeMutateEvent attr -> {
+          int flags = invalidationSet.attributeFlags(
+              attr.getKey(),
+              attr.getPreviousValue(),
+              attr.getNewValue()
+          );
 
-      if (styleNode != null) {
-        styleNode.updateStyle();
+          if (attr.getKey().equals(Attributes.STYLE)) {
+            flags |= InvalidationSet.SELF;
+          }
+
+          invalidate(target, flags);
+        }
+
+        case MutationEvent mutation -> {
+          if (invalidationSet.isStructural()) {
+            // Sibling relations changed, restyle all children
+            restyleChildren((ElementStyleNode) styleNode);
+            return;
+          }
+
+          if (!mutation.getType().equals(EventTypes.APPEND_CHILD)) {
+            return;
+          }
+
+          StyleNode added = getStyleNode(mutation.getNode());
+          if (added != null) {
+            restyle(added, true);
+          }
+        }
+
+        default -> {
+          // Input value changed, only matters for ::placeholder
+          invalidate(target, invalidationSet.pseudoElementFlags() | InvalidationSet.SELF);
+        }
       }
     }
   }
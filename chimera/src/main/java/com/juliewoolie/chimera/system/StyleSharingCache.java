@@ -0,0 +1,134 @@
+package com.juliewoolie.chimera.system;
+
+import com.google.common.base.Strings;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import com.juliewoolie.dom.Attributes;
+import com.juliewoolie.dom.Element;
+import com.juliewoolie.dom.NodeFlag;
+
+// Remembers the last few elements styled during the current style pass.
+// A sibling with the same tag, attributes and state flags is guaranteed
+// to match the same rules, so it can copy the cached element's resolved
+// style instead of running the cascade itself
+public class StyleSharingCache {
+
+  static final int SIZE = 8;
+
+  private final StyleObjectModel system;
+  private final ElementStyleNode[] entries = new ElementStyleNode[SIZE];
+  private int next = 0;
+
+  private int hits = 0;
+
+  public StyleSharingCache(StyleObjectModel system) {
+    this.system = system;
+  }
+
+  public int getHits() {
+    return hits;
+  }
+
+  public void clear() {
+    Arrays.fill(entries, null);
+    next = 0;
+  }
+
+  public ElementStyleNode find(ElementStyleNode node) {
+    if (!canShare(node)) {
+      return null;
+    }
+
+    for (ElementStyleNode entry : entries) {
+      if (entry == null || entry == node) {
+        continue;
+      }
+      if (!matches(node, entry)) {
+        continue;
+      }
+
+      hits++;
+      return entry;
+    }
+
+    return null;
+  }
+
+  public void add(ElementStyleNode node) {
+    if (!canShare(node)) {
+      return;
+    }
+
+    entries[next] = node;
+    next = (next + 1) % SIZE;
+  }
+
+  private boolean canShare(ElementStyleNode node) {
+    if (node.parent == null) {
+      return false;
+    }
+
+    // Sibling order affects matching, siblings can't be interchanged
+    if (system.invalidationSet.isStructural()) {
+      return false;
+    }
+
+    // ::placeholder depends on the input's value, not its attributes
+    if (system.invalidationSet.pseudoElementFlags() != 0) {
+      return false;
+    }
+
+    if (node.getInlineStyleSet().size() > 0) {
+      return false;
+    }
+
+    // ID rules are meant to target a single element
+    return Strings.isNullOrEmpty(node.getDomNode().getId());
+  }
+
+  private static boolean matches(ElementStyleNode node, ElementStyleNode entry) {
+    // Same parent means same ancestors and same inherited values
+    if (node.parent != entry.parent) {
+      return false;
+    }
+
+    Element a = node.getDomNode();
+    Element b = entry.getDomNode();
+
+    if (!a.getTagName().equalsIgnoreCase(b.getTagName())) {
+      return false;
+    }
+
+    if (!sameFlag(a, b, NodeFlag.HOVERED)
+        || !sameFlag(a, b, NodeFlag.CLICKED)
+        || !sameFlag(a, b, NodeFlag.ROOT)
+    ) {
+      return false;
+    }
+
+    if (!Objects.equals(a.getClassName(), b.getClassName())) {
+      return false;
+    }
+
+    Set<String> names = a.getAttributeNames();
+    if (names.size() != b.getAttributeNames().size()) {
+      return false;
+    }
+
+    for (String name : names) {
+      if (name.equals(Attributes.CLASS)) {
+        continue;
+      }
+      if (!Objects.equals(a.getAttribute(name), b.getAttribute(name))) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static boolean sameFlag(Element a, Element b, NodeFlag flag) {
+    return a.hasFlag(flag) == b.hasFlag(flag);
+  }
+}
@@ -0,0 +1,66 @@
+package com.juliewoolie.chimera;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.juliewoolie.dom.style.Primitive;
+import org.junit.jupiter.api.Test;
+
+class PropertySetTest {
+
+  @Test
+  void should_iterateOnlySetProperties() {
+    PropertySet set = new PropertySet();
+    set.set(Properties.MARGIN_LEFT, Primitive.create(1));
+    set.set(Properties.COLOR, null);
+    set.set(Properties.PADDING_LEFT, Primitive.create(2));
+
+    int count = 0;
+    for (int id = set.nextId(0); id >= 0; id = set.nextId(id + 1)) {
+      assertNotNull(set.valueAt(id));
+      count++;
+    }
+
+    assertEquals(3, count);
+    assertEquals(3, set.size());
+  }
+
+  @Test
+  void should_returnSharedDefault_when_missing() {
+    PropertySet set = new PropertySet();
+
+    Value<Primitive> first = set.get(Properties.PADDING_LEFT);
+    Value<Primitive> second = set.get(Properties.PADDING_LEFT);
+
+    assertSame(first, second);
+    assertFalse(set.has(Properties.PADDING_LEFT));
+  }
+
+  @Test
+  void should_returnDirtyBits_when_setAllChanges() {
+    PropertySet target = new PropertySet();
+    target.set(Properties.MARGIN_LEFT, Primitive.create(1));
+
+    PropertySet source = new PropertySet();
+    source.set(Properties.PADDING_LEFT, Primitive.create(2));
+
+    int changes = target.setAll(source);
+
+    assertNotEquals(0, changes);
+    assertFalse(target.has(Properties.MARGIN_LEFT));
+    assertTrue(target.has(Properties.PADDING_LEFT));
+
+    assertEquals(0, target.setAll(source));
+    assertEquals(source, target);
+  }
+
+  @Test
+  void should_beEmpty_when_cleared() {
+    PropertySet set = new PropertySet();
+    set.set(Properties.MARGIN_LEFT, Primitive.create(1));
+    set.clear();
+
+    assertEquals(0, set.size());
+    assertEquals(-1, set.nextId(0));
+    assertEquals(new PropertySet(), set);
+  }
+}
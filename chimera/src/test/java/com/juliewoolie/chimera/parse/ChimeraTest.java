@@ -82,6 +82,25 @@ class ChimeraTest {
     assertEquals(NamedColor.RED, color.getValue());
   }
 
+  @Test
+  void testSheetCopy() {
+    ChimeraStylesheet sheet = evaluateSheet(TEST_SHEET_1);
+    ChimeraStylesheet copy = sheet.copy();
+
+    assertEquals(sheet.getLength(), copy.getLength());
+
+    Rule rule = sheet.getRule(0);
+    Rule copied = copy.getRule(0);
+    assertEquals(rule.getSelector(), copied.getSelector());
+
+    Value<Color> copiedValue = copied.getPropertySet().get(Properties.COLOR);
+    copiedValue.setEnabled(false);
+    copied.getPropertySet().remove(Properties.COLOR);
+
+    assertTrue(rule.getPropertySet().get(Properties.COLOR).isEnabled());
+    assertTrue(rule.getPropertySet().has(Properties.COLOR));
+  }
+
   @Test
   void testBinary() {
     Object o = evaluateStr("2 + 3");
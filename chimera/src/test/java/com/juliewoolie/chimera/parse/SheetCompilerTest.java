@@ -0,0 +1,173 @@
+package com.juliewoolie.chimera.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.juliewoolie.chimera.ChimeraStylesheet;
+import com.juliewoolie.chimera.Properties;
+import com.juliewoolie.chimera.PropertySet;
+import com.juliewoolie.chimera.Rule;
+import com.juliewoolie.chimera.Value;
+import com.juliewoolie.chimera.parse.SheetCompiler.CompiledSheet;
+import com.juliewoolie.chimera.parse.ast.SheetStatement;
+import com.juliewoolie.dom.style.Color;
+import com.juliewoolie.dom.style.NamedColor;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class SheetCompilerTest {
+
+  static final String MIXIN_SHEET = """
+      @mixin themed {
+        color: $accent;
+        padding-left: 2px + 4px;
+      }
+
+      $accent: red;
+
+      .a {
+        @include themed;
+      }
+
+      .b {
+        $accent: blue;
+        color: $accent;
+      }
+
+      .c {
+        color: $accent;
+      }
+      """;
+
+  @Test
+  void should_matchInterpreter_when_compilingTestSheets() throws Exception {
+    for (String source : loadTestSheets()) {
+      Result expected = run(source, false);
+      Result compiled = run(source, true);
+
+      assertSameOutput(expected, compiled);
+    }
+  }
+
+  @Test
+  void should_resolveLaterVariable_when_usedInMixin() {
+    Result interpreted = run(MIXIN_SHEET, false);
+    Result compiled = run(MIXIN_SHEET, true);
+
+    assertSameOutput(interpreted, compiled);
+    assertTrue(compiled.messages.isEmpty());
+
+    ChimeraStylesheet sheet = compiled.sheet;
+    assertEquals(3, sheet.getLength());
+
+    PropertySet a = sheet.getRule(0).getPropertySet();
+    assertEquals(NamedColor.RED, a.get(Properties.COLOR).getValue());
+    assertNotNull(a.get(Properties.PADDING_LEFT));
+
+    // .b assigns the top level variable, so .c sees the new value
+    Value<Color> c = sheet.getRule(2).getPropertySet().get(Properties.COLOR);
+    assertEquals(NamedColor.BLUE, c.getValue());
+  }
+
+  @Test
+  void should_reportErrors_when_executed() {
+    String source = ".a { padding-left: 1px + 1deg; }";
+
+    ChimeraParser parser = new ChimeraParser(source);
+    List<String> messages = new ArrayList<>();
+    parser.getErrors().setListener(error -> messages.add(error.getMessage()));
+
+    SheetStatement stat = parser.stylesheet();
+    CompiledSheet compiled = new SheetCompiler(parser.createContext()).compile(stat);
+
+    // Expressions with errors aren't folded while compiling
+    assertTrue(messages.isEmpty());
+
+    compiled.execute();
+    assertEquals(1, messages.size());
+
+    compiled.execute();
+    assertEquals(2, messages.size());
+  }
+
+  static List<String> loadTestSheets() throws IOException, URISyntaxException {
+    Path dir = Path.of(SheetCompilerTest.class.getClassLoader().getResource("syntax-tests/").toURI());
+    List<String> sources = new ArrayList<>();
+
+    try (Stream<Path> stream = Files.walk(dir)) {
+      List<Path> paths = stream
+          .filter(path -> path.toString().endsWith(SyntaxTests.SCSS_SUFFIX))
+          .sorted()
+          .toList();
+
+      for (Path path : paths) {
+        sources.add(Files.readString(path, StandardCharsets.UTF_8));
+      }
+    }
+
+    assertFalse(sources.isEmpty());
+    return sources;
+  }
+
+  static Result run(String source, boolean compile) {
+    ChimeraParser parser = new ChimeraParser(source);
+    List<String> messages = new ArrayList<>();
+    parser.getErrors().setListener(error -> messages.add(error.getFormattedError()));
+
+    SheetStatement stat = parser.stylesheet();
+
+    ChimeraContext ctx = parser.createContext();
+    ctx.setIgnoringAsserts(false);
+
+    ChimeraStylesheet sheet;
+
+    if (compile) {
+      sheet = new SheetCompiler(ctx).compile(stat).execute();
+    } else {
+      sheet = new Interpreter(ctx, Scope.createTopLevel()).sheet(stat);
+    }
+
+    return new Result(sheet, messages);
+  }
+
+  static void assertSameOutput(Result expected, Result actual) {
+    assertEquals(expected.messages, actual.messages);
+    assertEquals(expected.sheet.getLength(), actual.sheet.getLength());
+
+    for (int i = 0; i < expected.sheet.getLength(); i++) {
+      Rule expectedRule = expected.sheet.getRule(i);
+      Rule actualRule = actual.sheet.getRule(i);
+
+      assertEquals(expectedRule.getSelector(), actualRule.getSelector());
+      assertSameProperties(expectedRule.getPropertySet(), actualRule.getPropertySet());
+    }
+  }
+
+  static void assertSameProperties(PropertySet expected, PropertySet actual) {
+    assertEquals(expected.size(), actual.size());
+
+    for (int id = expected.nextId(0); id >= 0; id = expected.nextId(id + 1)) {
+      Value<Object> expectedValue = expected.valueAt(id);
+      Value<Object> actualValue = actual.valueAt(id);
+
+      assertNotNull(actualValue);
+      assertEquals(expectedValue.getType(), actualValue.getType());
+      assertEquals(expectedValue.getValue(), actualValue.getValue());
+      assertEquals(expectedValue.getTextValue(), actualValue.getTextValue());
+      assertEquals(expectedValue.isImportant(), actualValue.isImportant());
+    }
+  }
+
+  record Result(ChimeraStylesheet sheet, List<String> messages) {
+
+  }
+}
@@ -2,9 +2,12 @@ package com.juliewoolie.chimera.parse;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import com.juliewoolie.chimera.parse.TokenStream.ParseMode;
+import java.nio.CharBuffer;
 import org.junit.jupiter.api.Test;
 
 class TokenStreamTest {
@@ -140,6 +143,59 @@ class TokenStreamTest {
     assertEquals("a", n.value());
   }
 
+  @Test
+  void should_shareString_when_idRepeats() {
+    TokenStream stream = createStream("padding-left padding-left");
+
+    Token first = stream.next();
+    stream.next();
+    Token second = stream.next();
+
+    assertEquals("padding-left", first.value());
+    assertSame(first.value(), second.value());
+  }
+
+  @Test
+  void should_notInternString_when_literalLong() {
+    NameTable table = NameTable.get();
+    table.clear();
+
+    String literal = "x".repeat(NameTable.MAX_LENGTH + 1);
+    TokenStream stream = createStream("'" + literal + "' '" + literal + "'");
+
+    Token first = stream.next();
+    stream.next();
+    Token second = stream.next();
+
+    assertEquals(literal, first.value());
+    assertEquals(literal, second.value());
+    assertNotSame(first.value(), second.value());
+    assertEquals(0, table.size());
+  }
+
+  @Test
+  void should_readSlice_when_givenCharBuffer() {
+    char[] chars = "ignored .foo { }".toCharArray();
+    CharBuffer buf = CharBuffer.wrap(chars, 8, 3);
+
+    CompilerErrors errors = new CompilerErrors(buf);
+    TokenStream stream = new TokenStream(buf, errors);
+
+    Token t = stream.next();
+    assertEquals(Token.ID, t.type());
+    assertEquals("foo", t.value());
+    assertEquals(Token.EOF, stream.next().type());
+  }
+
+  @Test
+  void should_unescape_when_stringHasEscapes() {
+    TokenStream stream = createStream("'plain' 'tab\\there'");
+
+    assertEquals("plain", stream.next().value());
+    stream.next();
+    assertEquals("tab\there", stream.next().value());
+  }
+
   private TokenStream createStream(String in) {
     StringBuffer buf = new StringBuffer(in);
     CompilerErrors errors = new CompilerErrors(buf);
@@ -1,5 +1,6 @@
 plugins {
   `java-library`
+  id("me.champeau.jmh") version "0.7.2"
 }
 
 version = "1.3.0-SNAPSHOT"
@@ -13,4 +14,15 @@ dependencies {
   implementation(project(":chimera"))
   compileOnly("org.ccil.cowan.tagsoup:tagsoup:1.2.1")
   testImplementation("org.ccil.cowan.tagsoup:tagsoup:1.2.1")
-}
\ No newline at end of file
+
+  // Benchmarks run outside the server, so the compile only dependencies
+  // have to be on their classpath
+  jmhImplementation("io.papermc.paper:paper-api:1.21.7-R0.1-SNAPSHOT")
+}
+
+jmh {
+  // Run a single benchmark class with: -PjmhInclude=SelectorMatchBenchmark
+  if (project.hasProperty("jmhInclude")) {
+    includes.add(project.property("jmhInclude").toString())
+  }
+}
@@ -0,0 +1,109 @@
+package com.juliewoolie.delphidom.selector;
+
+import com.juliewoolie.chimera.parse.Chimera;
+import com.juliewoolie.chimera.selector.Selector;
+import com.juliewoolie.chimera.selector.SelectorCompiler;
+import com.juliewoolie.delphidom.DelphiDocument;
+import com.juliewoolie.delphidom.DelphiElement;
+import com.juliewoolie.dom.Element;
+import com.juliewoolie.dom.Node;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Tests one selector against every element of a generated document, once
+// with the selector tree itself and once with its compiled matcher
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SelectorMatchBenchmark {
+
+  @Param({
+      "div",
+      ".item.active",
+      "[data-x^=\"a\"]",
+      "#main .item",
+      "div > span.item ~ p",
+      "body div > :not(span)",
+  })
+  public String query;
+
+  private Selector selector;
+  private Predicate<Element> compiled;
+  private final List<Element> elements = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    DelphiDocument doc = DelphiDocument.createEmpty();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement main = doc.createElement("div");
+    main.setId("main");
+    body.appendChild(main);
+
+    // 50 rows of 3 children each, nested a few levels deep
+    for (int i = 0; i < 50; i++) {
+      DelphiElement row = doc.createElement("div");
+      row.setClassName(i % 2 == 0 ? "row" : "row odd");
+      main.appendChild(row);
+
+      DelphiElement span = doc.createElement("span");
+      span.setClassName(i % 5 == 0 ? "item active" : "item");
+      span.setAttribute("data-x", i % 3 == 0 ? "abc" : "xyz");
+      row.appendChild(span);
+
+      DelphiElement p = doc.createElement("p");
+      p.setClassName("item");
+      row.appendChild(p);
+
+      DelphiElement inner = doc.createElement("div");
+      inner.appendChild(doc.createElement("span"));
+      row.appendChild(inner);
+    }
+
+    collect(doc.getDocumentElement(), elements);
+
+    selector = Chimera.parseSelector(query);
+    compiled = SelectorCompiler.compile(selector);
+  }
+
+  static void collect(Element element, List<Element> out) {
+    out.add(element);
+
+    for (Node child : element.getChildren()) {
+      if (child instanceof Element childEl) {
+        collect(childEl, out);
+      }
+    }
+  }
+
+  @Benchmark
+  public void interpreted(Blackhole bh) {
+    for (int i = 0; i < elements.size(); i++) {
+      bh.consume(selector.test(elements.get(i)));
+    }
+  }
+
+  @Benchmark
+  public void compiled(Blackhole bh) {
+    for (int i = 0; i < elements.size(); i++) {
+      bh.consume(compiled.test(elements.get(i)));
+    }
+  }
+}
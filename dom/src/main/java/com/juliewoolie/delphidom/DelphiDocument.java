@@ -384,6 +384,8 @@ public class DelphiDocument implements Document, DelegateTarget {
   }
 
   void addedChild(DelphiElement el, DelphiNode child, int idx) {
+    el.siblingIndexEntry = null;
+
     Mutation mutation = new Mutation(EventTypes.APPEND_CHILD, this);
     mutation.initEvent(el, false, false, child, idx);
 
@@ -391,6 +393,8 @@ public class DelphiDocument implements Document, DelegateTarget {
   }
 
   void removingChild(DelphiElement el, DelphiNode node, int idx) {
+    el.siblingIndexEntry = null;
+
     Mutation mutation = new Mutation(EventTypes.REMOVE_CHILD, this);
     mutation.initEvent(el, false, false, node, idx);
 
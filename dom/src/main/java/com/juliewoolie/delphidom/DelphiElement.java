@@ -3,8 +3,12 @@ package com.juliewoolie.delphidom;
 import com.google.common.base.Strings;
 import com.google.common.xml.XmlEscapers;
 import com.juliewoolie.chimera.StringUtil;
-import com.juliewoolie.chimera.parse.Chimera;
 import com.juliewoolie.chimera.selector.Selector;
+import com.juliewoolie.chimera.selector.SelectorCache;
+import com.juliewoolie.chimera.selector.SiblingIndexCache;
+import com.juliewoolie.chimera.selector.SiblingIndexCache.Holder;
+import com.juliewoolie.chimera.system.ElementStyleNode;
+import com.juliewoolie.chimera.system.StyleNode;
 import com.juliewoolie.delphidom.event.DelegateTarget;
 import com.juliewoolie.delphidom.event.EventImpl;
 import com.juliewoolie.delphidom.event.EventListenerList;
@@ -33,11 +37,12 @@ import java.util.StringJoiner;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import lombok.Getter;
+import lombok.Setter;
 import net.kyori.adventure.util.Ticks;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-public class DelphiElement extends DelphiNode implements Element, DelegateTarget {
+public class DelphiElement extends DelphiNode implements Element, DelegateTarget, Holder {
 
   @Getter
   final String tagName;
@@ -56,6 +61,10 @@ public class DelphiElement extends DelphiNode implements Element, DelegateTarget
 
   public int forcedFlags = 0;
 
+  // Type indices of the children, dropped when the children change
+  @Getter @Setter
+  SiblingIndexCache.Entry siblingIndexEntry;
+
   public DelphiElement(DelphiDocument document, String tagName) {
     super(document);
     this.tagName = tagName;
@@ -109,9 +118,29 @@ public class DelphiElement extends DelphiNode implements Element, DelegateTarget
 
   @Override
   public @Nullable String getAttribute(String key) {
+    if (Attributes.STYLE.equals(key)) {
+      syncStyleAttribute();
+    }
+
     return attributes.get(key);
   }
 
+  // Inline style changes made through getStyle() only regenerate the
+  // 'style' attribute when it's read
+  private void syncStyleAttribute() {
+    StyleNode node = document.styles.getStyleNode(this);
+    if (!(node instanceof ElementStyleNode el)) {
+      return;
+    }
+
+    String value = el.takeStaleInlineAttribute();
+    if (value == null) {
+      return;
+    }
+
+    attributes.put(Attributes.STYLE, value);
+  }
+
   @Override
   public boolean hasAttribute(String key) {
     if (Strings.isNullOrEmpty(key)) {
@@ -165,6 +194,7 @@ public class DelphiElement extends DelphiNode implements Element, DelegateTarget
 
   @Override
   public Set<Entry<String, String>> getAttributeEntries() {
+    syncStyleAttribute();
     return Collections.unmodifiableSet(attributes.entrySet());
   }
 
@@ -673,7 +703,7 @@ public class DelphiElement extends DelphiNode implements Element, DelegateTarget
   @Override
   @SuppressWarnings({"rawtypes", "unchecked"})
   public @NotNull List<Element> querySelectorAll(@NotNull String query) {
-    Selector selector = Chimera.parseSelector(query);
+    Selector selector = SelectorCache.parse(query);
     List<Element> elementList = new ArrayList<>();
 
     collectDescendants(elementList, selector::test);
@@ -683,13 +713,13 @@ public class DelphiElement extends DelphiNode implements Element, DelegateTarget
 
   @Override
   public @Nullable DelphiElement querySelector(@NotNull String query) {
-    Selector selector = Chimera.parseSelector(query);
+    Selector selector = SelectorCache.parse(query);
     return matchFirst(selector);
   }
 
   @Override
   public boolean matches(String selector) {
-    Selector compiled = Chimera.parseSelector(selector);
+    Selector compiled = SelectorCache.parse(selector);
     return compiled.test(this);
   }
 
@@ -784,6 +814,7 @@ public class DelphiElement extends DelphiNode implements Element, DelegateTarget
     builder.append("<")
         .append(tagName);
 
+    syncStyleAttribute();
     attributes.forEach((s, s2) -> {
       builder
           .append(' ')
@@ -30,6 +30,10 @@ public abstract class ElementTrackingSystem<T extends Element> implements Object
     return true;
   }
 
+  protected boolean filterElement(Element container, T element) {
+    return filterContainer(container);
+  }
+
   protected static boolean isInHeader(Document document, Element element) {
     return Objects.equals(document.getHead(), element);
   }
@@ -93,7 +97,7 @@ public abstract class ElementTrackingSystem<T extends Element> implements Object
       }
       T t = elementType.cast(node);
 
-      if (!filterContainer(target)) {
+      if (!filterElement(target, t)) {
         return;
       }
 
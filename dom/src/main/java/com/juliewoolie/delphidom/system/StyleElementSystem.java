@@ -8,6 +8,7 @@ import com.juliewoolie.delphidom.ContentSource;
 import com.juliewoolie.delphidom.DelphiStyleElement;
 import com.juliewoolie.delphidom.ExtendedView;
 import com.juliewoolie.delphidom.Loggers;
+import com.juliewoolie.dom.Attributes;
 import com.juliewoolie.dom.Element;
 
 public class StyleElementSystem extends ParsedDataElementSystem<DelphiStyleElement> {
@@ -31,6 +32,30 @@ public class StyleElementSystem extends ParsedDataElementSystem<DelphiStyleEleme
     return isInHeader(document, element);
   }
 
+  @Override
+  protected boolean filterElement(Element container, DelphiStyleElement element) {
+    if (filterContainer(container)) {
+      return true;
+    }
+
+    return container != null && element.hasAttribute(Attributes.SCOPED);
+  }
+
+  // Scoped style elements outside the header only style their parent's
+  // subtree
+  private Element scopeOf(DelphiStyleElement element) {
+    Element parent = element.getParent();
+
+    if (parent == null || isInHeader(document, parent)) {
+      return null;
+    }
+    if (!element.hasAttribute(Attributes.SCOPED)) {
+      return null;
+    }
+
+    return parent;
+  }
+
   @Override
   public void onViewAttach(ExtendedView view) {
     super.onViewAttach(view);
@@ -49,7 +74,7 @@ public class StyleElementSystem extends ParsedDataElementSystem<DelphiStyleEleme
     super.onAppend(style);
 
     if (style.stylesheet != null) {
-      document.getStyles().addStylesheet(style.stylesheet);
+      document.getStyles().addStylesheet(style.stylesheet, scopeOf(style));
       return;
     }
 
@@ -86,7 +111,7 @@ public class StyleElementSystem extends ParsedDataElementSystem<DelphiStyleEleme
         .ifError(s -> Loggers.getDocumentLogger().error(s))
         .ifSuccess(stylesheet1 -> {
           ChimeraStylesheet c = ((ChimeraStylesheet) stylesheet1);
-          document.getStyles().replaceStylesheet(element.stylesheet, c);
+          document.getStyles().replaceStylesheet(element.stylesheet, c, scopeOf(element));
           element.stylesheet = c;
           element.source = ContentSource.SRC_ATTR;
         });
@@ -100,9 +125,9 @@ public class StyleElementSystem extends ParsedDataElementSystem<DelphiStyleEleme
     }
 
     ChimeraStylesheet old = element.stylesheet;
-    element.stylesheet = Chimera.parseSheet(new StringBuffer(txtContent), "<style #text>");
+    element.stylesheet = Chimera.parseSheet(txtContent, "<style #text>");
     element.stylesheet.setSource("inline");
-    document.getStyles().replaceStylesheet(old, element.stylesheet);
+    document.getStyles().replaceStylesheet(old, element.stylesheet, scopeOf(element));
   }
 
   @Override
@@ -0,0 +1,163 @@
+package com.juliewoolie.delphidom.scss;
+
+import static com.juliewoolie.delphidom.TestUtil.createDoc;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.juliewoolie.chimera.ChimeraStylesheet;
+import com.juliewoolie.chimera.Rule;
+import com.juliewoolie.chimera.parse.Chimera;
+import com.juliewoolie.chimera.system.StyleObjectModel;
+import com.juliewoolie.delphidom.DelphiDocument;
+import com.juliewoolie.delphidom.DelphiElement;
+import org.junit.jupiter.api.Test;
+
+class DefaultStyleTest {
+
+  static final String DEFAULT_SHEET = """
+      div {
+        padding-left: 1px;
+        padding-right: 1px;
+      }
+      span, b {
+        padding-left: 2px;
+      }
+      * {
+        padding-right: 5px;
+      }
+      div {
+        padding-right: 3px;
+      }
+      p {
+        padding-left: 6px;
+      }
+      """;
+
+  static ChimeraStylesheet createDefaultSheet() {
+    ChimeraStylesheet sheet = Chimera.parseSheet(DEFAULT_SHEET, "default-style");
+
+    for (int i = 0; i < sheet.getLength(); i++) {
+      Rule rule = sheet.getRule(i);
+      rule.getSpec().idColumn -= 10;
+      rule.getSpec().classColumn -= 10;
+      rule.getSpec().typeColumn -= 10;
+    }
+
+    return sheet;
+  }
+
+  @Test
+  void should_onlyKeepResidualRules_when_defaultSheetAdded() {
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+
+    ChimeraStylesheet sheet = createDefaultSheet();
+    styles.setDefaultStyleSheet(sheet);
+    doc.addStylesheet(sheet);
+
+    // '*' has a lower specificity than the 'div' rules and sets one of
+    // the same properties, so they have to stay in the cascade after it
+    assertEquals(3, styles.getRules().size());
+    assertTrue(styles.getRules().contains(sheet.getRule(0)));
+    assertTrue(styles.getRules().contains(sheet.getRule(2)));
+    assertTrue(styles.getRules().contains(sheet.getRule(3)));
+
+    styles.removeStylesheet(sheet);
+    assertTrue(styles.getRules().isEmpty());
+  }
+
+  @Test
+  void should_applyBaseStyle_when_defaultSheetAdded() {
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement div = doc.createElement("div");
+    DelphiElement b = doc.createElement("b");
+    DelphiElement p = doc.createElement("p");
+
+    body.appendChild(div);
+    body.appendChild(b);
+    body.appendChild(p);
+
+    ChimeraStylesheet sheet = createDefaultSheet();
+    styles.setDefaultStyleSheet(sheet);
+    doc.addStylesheet(sheet);
+
+    assertEquals("1px", div.getCurrentStyle().getPaddingLeft());
+    assertEquals("3px", div.getCurrentStyle().getPaddingRight());
+    assertEquals("2px", b.getCurrentStyle().getPaddingLeft());
+    assertEquals("5px", b.getCurrentStyle().getPaddingRight());
+    assertEquals("6px", p.getCurrentStyle().getPaddingLeft());
+
+    doc.createStylesheet()
+        .addRule("div", prop -> prop.setPaddingLeft("4px"))
+        .build();
+
+    assertEquals("4px", div.getCurrentStyle().getPaddingLeft());
+
+    styles.removeStylesheet(sheet);
+    assertNull(b.getCurrentStyle().getPaddingLeft());
+    assertFalse(styles.getRules().isEmpty());
+  }
+
+  @Test
+  void should_resolveInitial_when_tagHasDefault() {
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement div = doc.createElement("div");
+    div.setClassName("wide");
+    DelphiElement span = doc.createElement("span");
+    DelphiElement p = doc.createElement("p");
+
+    body.appendChild(div);
+    body.appendChild(span);
+    body.appendChild(p);
+
+    styles.setDefaultStyleSheet(createDefaultSheet());
+
+    doc.createStylesheet()
+        .addRule("*", prop -> prop.setPaddingLeft("10px").setPaddingRight("10px"))
+        .addRule(".wide, span, p", prop -> prop.setPaddingLeft("initial").setPaddingRight("initial"))
+        .build();
+
+    // 'initial' takes the first value in source order
+    assertEquals("1px", div.getCurrentStyle().getPaddingLeft());
+    assertEquals("1px", div.getCurrentStyle().getPaddingRight());
+    assertEquals("2px", span.getCurrentStyle().getPaddingLeft());
+    assertEquals("5px", span.getCurrentStyle().getPaddingRight());
+    assertEquals("6px", p.getCurrentStyle().getPaddingLeft());
+    assertEquals("5px", p.getCurrentStyle().getPaddingRight());
+  }
+
+  @Test
+  void should_keepCascadeOrder_when_lowerSpecificityRuleSetsBaseProperty() {
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement div = doc.createElement("div");
+    body.appendChild(div);
+
+    // Not lowered, so '*' comes before the 'div' rule in the cascade
+    ChimeraStylesheet sheet = Chimera.parseSheet(
+        "div { padding-left: 1px; padding-right: 1px; }",
+        "default-style"
+    );
+
+    doc.createStylesheet()
+        .addRule("*", prop -> prop.setPaddingLeft("7px").setPaddingTop("7px"))
+        .build();
+
+    styles.setDefaultStyleSheet(sheet);
+    doc.addStylesheet(sheet);
+
+    assertEquals("1px", div.getCurrentStyle().getPaddingLeft());
+    assertEquals("1px", div.getCurrentStyle().getPaddingRight());
+    assertEquals("7px", div.getCurrentStyle().getPaddingTop());
+  }
+}
@@ -0,0 +1,86 @@
+package com.juliewoolie.delphidom.scss;
+
+import static com.juliewoolie.delphidom.TestUtil.createDoc;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.juliewoolie.chimera.system.StyleObjectModel;
+import com.juliewoolie.delphidom.DelphiDocument;
+import com.juliewoolie.delphidom.DelphiElement;
+import org.junit.jupiter.api.Test;
+
+class DeferredUpdateTest {
+
+  @Test
+  void should_markDirty_when_deferring() {
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement div = doc.createElement("div");
+    body.appendChild(div);
+
+    doc.createStylesheet()
+        .addRule(".a", prop -> prop.setPaddingLeft("4px"))
+        .build();
+
+    styles.setDeferringUpdates(true);
+
+    div.setClassName("a");
+    assertTrue(styles.hasPendingUpdates());
+    assertNull(styles.getStyleNode(div).getCurrentStyle().getPaddingLeft());
+
+    styles.flushStyles();
+    assertFalse(styles.hasPendingUpdates());
+    assertEquals("4px", styles.getStyleNode(div).getCurrentStyle().getPaddingLeft());
+  }
+
+  @Test
+  void should_flush_when_styleRead() {
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement outer = doc.createElement("div");
+    DelphiElement inner = doc.createElement("span");
+    outer.appendChild(inner);
+    body.appendChild(outer);
+
+    doc.createStylesheet()
+        .addRule(".a span", prop -> prop.setPaddingLeft("4px"))
+        .build();
+
+    styles.setDeferringUpdates(true);
+
+    outer.setClassName("a");
+    inner.setAttribute("data-x", "1");
+    outer.setClassName("a b");
+
+    assertEquals("4px", inner.getCurrentStyle().getPaddingLeft());
+    assertFalse(styles.hasPendingUpdates());
+  }
+
+  @Test
+  void should_skipRemovedNodes_when_flushing() {
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement div = doc.createElement("div");
+    body.appendChild(div);
+
+    doc.createStylesheet()
+        .addRule(".a", prop -> prop.setPaddingLeft("4px"))
+        .build();
+
+    styles.setDeferringUpdates(true);
+
+    div.setClassName("a");
+    body.removeChild(div);
+
+    styles.flushStyles();
+    assertFalse(styles.hasPendingUpdates());
+  }
+}
@@ -3,11 +3,14 @@ package com.juliewoolie.delphidom.scss;
 import static com.juliewoolie.delphidom.TestUtil.createDoc;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.juliewoolie.chimera.ChimeraStylesheet;
+import com.juliewoolie.chimera.Properties;
 import com.juliewoolie.chimera.Rule;
+import com.juliewoolie.chimera.system.ElementStyleNode;
 import com.juliewoolie.chimera.system.StyleNode;
 import com.juliewoolie.delphidom.DelphiDocument;
 import com.juliewoolie.delphidom.DelphiElement;
@@ -32,6 +35,38 @@ class DocumentStylesTest {
     assertEquals("4px", inline.getPaddingLeft());
   }
 
+  @Test
+  void testInlineApiWrite() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    body.setAttribute(Attributes.STYLE, "padding-left: 4px;");
+
+    body.getStyle().setPaddingRight("2px");
+    assertEquals("2px", body.getCurrentStyle().getPaddingRight());
+
+    String attr = body.getAttribute(Attributes.STYLE);
+    assertTrue(attr.contains("padding-left: 4px;"), attr);
+    assertTrue(attr.contains("padding-right: 2px;"), attr);
+  }
+
+  @Test
+  void testInlineReplaced() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    body.setAttribute(Attributes.STYLE, "padding-left: 4px;");
+    body.setAttribute(Attributes.STYLE, "padding-right: 2px;");
+
+    assertNull(body.getCurrentStyle().getPaddingLeft());
+    assertEquals("2px", body.getCurrentStyle().getPaddingRight());
+
+    // Cached compilation result
+    body.setAttribute(Attributes.STYLE, "padding-left: 4px;");
+    assertEquals("4px", body.getCurrentStyle().getPaddingLeft());
+    assertNull(body.getCurrentStyle().getPaddingRight());
+  }
+
   @Test
   void testInlineSyntaxError() {
     DelphiDocument doc = createDoc();
@@ -95,4 +130,95 @@ class DocumentStylesTest {
     assertEquals(v, map.getPaddingLeft());
     assertNull(inline.getPaddingLeft());
   }
-}
\ No newline at end of file
+
+  @Test
+  void testDescendantRules() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement outer = doc.createElement("div");
+    outer.setClassName("outer");
+    body.appendChild(outer);
+
+    DelphiElement middle = doc.createElement("div");
+    outer.appendChild(middle);
+
+    DelphiElement inner = doc.createElement("span");
+    middle.appendChild(inner);
+
+    DelphiElement other = doc.createElement("span");
+    body.appendChild(other);
+
+    doc.createStylesheet()
+        .addRule(".outer span", prop -> prop.setPaddingLeft("4px"))
+        .addRule("body > div > div > span", prop -> prop.setPaddingRight("2px"))
+        .build();
+
+    assertEquals("4px", inner.getCurrentStyle().getPaddingLeft());
+    assertEquals("2px", inner.getCurrentStyle().getPaddingRight());
+    assertNull(other.getCurrentStyle().getPaddingLeft());
+
+    outer.setClassName(null);
+    assertNull(inner.getCurrentStyle().getPaddingLeft());
+
+    outer.setClassName("outer");
+    assertEquals("4px", inner.getCurrentStyle().getPaddingLeft());
+  }
+
+  @Test
+  void testDescendantOfSiblingRules() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement a = doc.createElement("div");
+    a.setClassName("a");
+    body.appendChild(a);
+
+    DelphiElement b = doc.createElement("div");
+    b.setClassName("b");
+    body.appendChild(b);
+
+    DelphiElement c = doc.createElement("span");
+    c.setClassName("c");
+    b.appendChild(c);
+
+    // .a is a sibling of c's ancestor, never an ancestor of c itself
+    doc.createStylesheet()
+        .addRule(".a ~ .b .c", prop -> prop.setPaddingLeft("4px"))
+        .addRule(".a + .b > .c", prop -> prop.setPaddingRight("2px"))
+        .build();
+
+    assertEquals("4px", c.getCurrentStyle().getPaddingLeft());
+    assertEquals("2px", c.getCurrentStyle().getPaddingRight());
+  }
+
+  @Test
+  void testCachedInlineValuesNotShared() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement first = doc.createElement("div");
+    DelphiElement second = doc.createElement("div");
+    body.appendChild(first);
+    body.appendChild(second);
+
+    first.setAttribute(Attributes.STYLE, "padding-left: 4px;");
+    second.setAttribute(Attributes.STYLE, "padding-left: 4px;");
+
+    ElementStyleNode firstNode = (ElementStyleNode) doc.getStyles().getStyleNode(first);
+    ElementStyleNode secondNode = (ElementStyleNode) doc.getStyles().getStyleNode(second);
+
+    var firstValue = firstNode.getInlineStyleSet().get(Properties.PADDING_LEFT);
+    var secondValue = secondNode.getInlineStyleSet().get(Properties.PADDING_LEFT);
+    assertNotSame(firstValue, secondValue);
+
+    // What the devtools do when a declaration is toggled off
+    firstValue.setEnabled(false);
+    assertTrue(secondValue.isEnabled());
+
+    DelphiElement third = doc.createElement("div");
+    body.appendChild(third);
+    third.setAttribute(Attributes.STYLE, "padding-left: 4px;");
+    assertEquals("4px", third.getCurrentStyle().getPaddingLeft());
+  }
+}
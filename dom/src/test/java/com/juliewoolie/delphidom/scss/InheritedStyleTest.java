@@ -0,0 +1,82 @@
+package com.juliewoolie.delphidom.scss;
+
+import static com.juliewoolie.delphidom.TestUtil.createDoc;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.juliewoolie.chimera.Properties;
+import com.juliewoolie.chimera.system.ElementStyleNode;
+import com.juliewoolie.chimera.system.StyleNode;
+import com.juliewoolie.chimera.system.StyleObjectModel;
+import com.juliewoolie.delphidom.DelphiDocument;
+import com.juliewoolie.delphidom.DelphiElement;
+import com.juliewoolie.dom.Attributes;
+import org.junit.jupiter.api.Test;
+
+class InheritedStyleTest {
+
+  @Test
+  void should_shareInheritedStyle_when_childSetsNoCascadingValues() {
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement div = doc.createElement("div");
+    DelphiElement span = doc.createElement("span");
+    div.appendChild(span);
+    body.appendChild(div);
+
+    doc.createStylesheet()
+        .addRule("body", prop -> prop.setColor("red"))
+        .addRule("div", prop -> prop.setPaddingLeft("2px"))
+        .build();
+
+    ElementStyleNode bodyNode = (ElementStyleNode) styles.getStyleNode(body);
+    StyleNode divNode = styles.getStyleNode(div);
+    StyleNode spanNode = styles.getStyleNode(span);
+
+    assertSame(bodyNode.getChildInherited(), divNode.getInherited());
+    assertSame(divNode.getInherited(), spanNode.getInherited());
+
+    // Children only store what they declare
+    assertFalse(divNode.getStyleSet().has(Properties.COLOR));
+    assertEquals(0, spanNode.getStyleSet().size());
+
+    String color = body.getCurrentStyle().getColor();
+    assertNotNull(color);
+    assertEquals(color, span.getCurrentStyle().getColor());
+    assertEquals("2px", div.getCurrentStyle().getPaddingLeft());
+  }
+
+  @Test
+  void should_updateDescendants_when_inheritedValueChanges() {
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement div = doc.createElement("div");
+    DelphiElement span = doc.createElement("span");
+    div.appendChild(span);
+    body.appendChild(div);
+
+    body.setAttribute(Attributes.STYLE, "color: red;");
+    String red = span.getCurrentStyle().getColor();
+
+    body.setAttribute(Attributes.STYLE, "color: blue;");
+    String blue = span.getCurrentStyle().getColor();
+
+    assertNotNull(red);
+    assertNotNull(blue);
+    assertNotEquals(red, blue);
+    assertEquals(blue, body.getCurrentStyle().getColor());
+    assertEquals(0, styles.getStyleNode(span).getStyleSet().size());
+
+    // Own values hide inherited ones
+    div.setAttribute(Attributes.STYLE, "color: green;");
+    assertEquals(div.getCurrentStyle().getColor(), span.getCurrentStyle().getColor());
+    assertNotEquals(blue, span.getCurrentStyle().getColor());
+  }
+}
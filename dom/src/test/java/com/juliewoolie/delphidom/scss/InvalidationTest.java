@@ -0,0 +1,108 @@
+package com.juliewoolie.delphidom.scss;
+
+import static com.juliewoolie.delphidom.TestUtil.createDoc;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.juliewoolie.delphidom.DelphiDocument;
+import com.juliewoolie.delphidom.DelphiElement;
+import com.juliewoolie.dom.NodeFlag;
+import org.junit.jupiter.api.Test;
+
+class InvalidationTest {
+
+  @Test
+  void should_restyleDescendants_when_ancestorClassChanges() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement outer = doc.createElement("div");
+    DelphiElement inner = doc.createElement("div");
+    outer.appendChild(inner);
+    body.appendChild(outer);
+
+    doc.createStylesheet()
+        .addRule(".active div", prop -> prop.setPaddingLeft("4px"))
+        .build();
+
+    assertNull(inner.getCurrentStyle().getPaddingLeft());
+
+    outer.setClassName("active");
+    assertEquals("4px", inner.getCurrentStyle().getPaddingLeft());
+
+    outer.setClassName("unrelated");
+    assertNull(inner.getCurrentStyle().getPaddingLeft());
+  }
+
+  @Test
+  void should_restyleSiblings_when_siblingAttributeChanges() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement first = doc.createElement("div");
+    DelphiElement second = doc.createElement("div");
+    body.appendChild(first);
+    body.appendChild(second);
+
+    doc.createStylesheet()
+        .addRule("[data-open] + div", prop -> prop.setPaddingLeft("4px"))
+        .build();
+
+    assertNull(second.getCurrentStyle().getPaddingLeft());
+
+    first.setAttribute("data-open", "true");
+    assertEquals("4px", second.getCurrentStyle().getPaddingLeft());
+
+    first.setAttribute("data-open", null);
+    assertNull(second.getCurrentStyle().getPaddingLeft());
+  }
+
+  @Test
+  void should_restyleSiblings_when_childAppended() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement first = doc.createElement("div");
+    body.appendChild(first);
+
+    doc.createStylesheet()
+        .addRule("div:last-child", prop -> prop.setPaddingLeft("4px"))
+        .build();
+
+    assertEquals("4px", first.getCurrentStyle().getPaddingLeft());
+
+    DelphiElement second = doc.createElement("div");
+    body.appendChild(second);
+
+    assertNull(first.getCurrentStyle().getPaddingLeft());
+    assertEquals("4px", second.getCurrentStyle().getPaddingLeft());
+  }
+
+  @Test
+  void should_restyle_when_flagChanged() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement button = doc.createElement("button");
+    DelphiElement label = doc.createElement("span");
+    button.appendChild(label);
+    body.appendChild(button);
+
+    doc.createStylesheet()
+        .addRule("button:hover", prop -> prop.setPaddingLeft("4px"))
+        .addRule("button:hover span", prop -> prop.setPaddingRight("2px"))
+        .build();
+
+    button.addFlag(NodeFlag.HOVERED);
+    doc.getStyles().flagChanged(button, NodeFlag.HOVERED);
+
+    assertEquals("4px", button.getCurrentStyle().getPaddingLeft());
+    assertEquals("2px", label.getCurrentStyle().getPaddingRight());
+
+    button.removeFlag(NodeFlag.HOVERED);
+    doc.getStyles().flagChanged(button, NodeFlag.HOVERED);
+
+    assertNull(button.getCurrentStyle().getPaddingLeft());
+    assertNull(label.getCurrentStyle().getPaddingRight());
+  }
+}
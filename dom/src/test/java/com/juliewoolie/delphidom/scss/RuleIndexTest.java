@@ -0,0 +1,85 @@
+package com.juliewoolie.delphidom.scss;
+
+import static com.juliewoolie.delphidom.TestUtil.createDoc;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.juliewoolie.chimera.Rule;
+import com.juliewoolie.chimera.system.StyleObjectModel;
+import com.juliewoolie.delphidom.DelphiDocument;
+import com.juliewoolie.delphidom.DelphiElement;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RuleIndexTest {
+
+  static List<String> candidates(DelphiDocument doc, DelphiElement el) {
+    StyleObjectModel styles = doc.getStyles();
+    BitSet set = new BitSet();
+    styles.getRuleIndex().collectCandidates(el, set);
+
+    List<String> result = new ArrayList<>();
+    for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+      Rule rule = styles.getRules().get(i);
+      result.add(rule.getSelector());
+    }
+
+    return result;
+  }
+
+  @Test
+  void should_onlyReturnMatchingBuckets() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement div = doc.createElement("div");
+    div.setClassName("a b");
+    body.appendChild(div);
+
+    doc.createStylesheet()
+        .addRule(".a", p -> p.setPaddingLeft("1px"))
+        .addRule(".c", p -> p.setPaddingLeft("2px"))
+        .addRule("span", p -> p.setPaddingLeft("3px"))
+        .addRule("div", p -> p.setPaddingLeft("4px"))
+        .addRule("#other", p -> p.setPaddingLeft("5px"))
+        .addRule(":hover", p -> p.setPaddingLeft("6px"))
+        .addRule("span .b", p -> p.setPaddingLeft("7px"))
+        .addRule("span.c, div", p -> p.setPaddingLeft("8px"))
+        .build();
+
+    List<String> list = candidates(doc, div);
+
+    assertTrue(list.contains(".a"));
+    assertTrue(list.contains("div"));
+    assertTrue(list.contains(":hover"));
+    assertTrue(list.contains("span .b"));
+    assertTrue(list.contains("span.c, div"));
+
+    assertFalse(list.contains(".c"));
+    assertFalse(list.contains("span"));
+    assertFalse(list.contains("#other"));
+  }
+
+  @Test
+  void should_keepSpecificityOrder() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement div = doc.createElement("div");
+    div.setClassName("a");
+    div.setId("id");
+    body.appendChild(div);
+
+    doc.createStylesheet()
+        .addRule("#id", p -> p.setPaddingLeft("1px"))
+        .addRule(".a", p -> p.setPaddingLeft("2px"))
+        .addRule("div", p -> p.setPaddingLeft("3px"))
+        .build();
+
+    assertEquals(List.of("div", ".a", "#id"), candidates(doc, div));
+    assertEquals("1px", div.getCurrentStyle().getPaddingLeft());
+  }
+}
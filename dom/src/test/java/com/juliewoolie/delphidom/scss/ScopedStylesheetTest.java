@@ -0,0 +1,122 @@
+package com.juliewoolie.delphidom.scss;
+
+import static com.juliewoolie.delphidom.TestUtil.createDoc;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.juliewoolie.chimera.ChimeraSheetBuilder;
+import com.juliewoolie.chimera.ChimeraStylesheet;
+import com.juliewoolie.chimera.system.StyleObjectModel;
+import com.juliewoolie.delphidom.DelphiDocument;
+import com.juliewoolie.delphidom.DelphiElement;
+import com.juliewoolie.dom.Attributes;
+import com.juliewoolie.dom.TagNames;
+import java.util.BitSet;
+import org.junit.jupiter.api.Test;
+
+class ScopedStylesheetTest {
+
+  @Test
+  void should_onlyStyleSubtree_when_sheetScoped() {
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement widget = doc.createElement("div");
+    DelphiElement inside = doc.createElement("span");
+    DelphiElement outside = doc.createElement("span");
+
+    widget.appendChild(inside);
+    body.appendChild(widget);
+    body.appendChild(outside);
+
+    ChimeraStylesheet sheet = new ChimeraSheetBuilder()
+        .addRule("span", prop -> prop.setPaddingLeft("4px"))
+        .addRule("div", prop -> prop.setPaddingLeft("2px"))
+        .build();
+
+    styles.addStylesheet(sheet, widget);
+
+    assertEquals("4px", inside.getCurrentStyle().getPaddingLeft());
+    assertEquals("2px", widget.getCurrentStyle().getPaddingLeft());
+    assertNull(outside.getCurrentStyle().getPaddingLeft());
+
+    // Scoped rules aren't even candidates outside the scope
+    BitSet candidates = new BitSet();
+    styles.getRuleIndex().collectCandidates(outside, candidates);
+    assertTrue(candidates.isEmpty());
+
+    styles.removeStylesheet(sheet);
+    assertNull(inside.getCurrentStyle().getPaddingLeft());
+    assertTrue(styles.getScopes().isEmpty());
+  }
+
+  @Test
+  void should_cascadeWithGlobalRules_when_sheetScoped() {
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement widget = doc.createElement("div");
+    DelphiElement inside = doc.createElement("span");
+    inside.setClassName("slot");
+    widget.appendChild(inside);
+    body.appendChild(widget);
+
+    doc.createStylesheet()
+        .addRule(".slot", prop -> prop.setPaddingLeft("1px"))
+        .build();
+
+    ChimeraStylesheet scoped = new ChimeraSheetBuilder()
+        .addRule("span", prop -> prop.setPaddingLeft("4px").setPaddingRight("4px"))
+        .build();
+
+    styles.addStylesheet(scoped, widget);
+
+    // Specificity still decides between global and scoped rules
+    assertEquals("1px", inside.getCurrentStyle().getPaddingLeft());
+    assertEquals("4px", inside.getCurrentStyle().getPaddingRight());
+  }
+
+  @Test
+  void should_scopeToParent_when_styleElementScoped() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement widget = doc.createElement("div");
+    DelphiElement inside = doc.createElement("span");
+    DelphiElement outside = doc.createElement("span");
+
+    widget.appendChild(inside);
+    body.appendChild(widget);
+    body.appendChild(outside);
+
+    DelphiElement style = doc.createElement(TagNames.STYLE);
+    style.setAttribute(Attributes.SCOPED, "");
+    style.appendChild(doc.createText("span { padding-left: 3px; }"));
+    widget.appendChild(style);
+
+    assertEquals("3px", inside.getCurrentStyle().getPaddingLeft());
+    assertNull(outside.getCurrentStyle().getPaddingLeft());
+
+    widget.removeChild(style);
+    assertNull(inside.getCurrentStyle().getPaddingLeft());
+  }
+
+  @Test
+  void should_ignoreStyleElement_when_notScopedOutsideHead() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement span = doc.createElement("span");
+    body.appendChild(span);
+
+    DelphiElement style = doc.createElement(TagNames.STYLE);
+    style.appendChild(doc.createText("span { padding-left: 3px; }"));
+    body.appendChild(style);
+
+    assertNull(span.getCurrentStyle().getPaddingLeft());
+    assertTrue(doc.getStyles().getRules().isEmpty());
+  }
+}
@@ -0,0 +1,71 @@
+package com.juliewoolie.delphidom.scss;
+
+import static com.juliewoolie.delphidom.TestUtil.createDoc;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.juliewoolie.chimera.system.StyleSharingCache;
+import com.juliewoolie.delphidom.DelphiDocument;
+import com.juliewoolie.delphidom.DelphiElement;
+import org.junit.jupiter.api.Test;
+
+class StyleSharingTest {
+
+  @Test
+  void should_shareStyle_when_siblingsIdentical() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement list = doc.createElement("div");
+    body.appendChild(list);
+
+    for (int i = 0; i < 10; i++) {
+      DelphiElement item = doc.createElement("span");
+      item.setClassName("item");
+      list.appendChild(item);
+    }
+
+    DelphiElement different = doc.createElement("span");
+    different.setClassName("item");
+    different.setAttribute("data-selected", "true");
+    list.appendChild(different);
+
+    StyleSharingCache cache = doc.getStyles().getSharingCache();
+    int hits = cache.getHits();
+
+    doc.createStylesheet()
+        .addRule(".item", prop -> prop.setPaddingLeft("4px"))
+        .addRule("[data-selected]", prop -> prop.setPaddingRight("2px"))
+        .build();
+
+    assertTrue(cache.getHits() > hits);
+
+    for (int i = 0; i < 10; i++) {
+      DelphiElement item = (DelphiElement) list.getChildren().get(i);
+      assertEquals("4px", item.getCurrentStyle().getPaddingLeft());
+      assertNull(item.getCurrentStyle().getPaddingRight());
+    }
+
+    assertEquals("4px", different.getCurrentStyle().getPaddingLeft());
+    assertEquals("2px", different.getCurrentStyle().getPaddingRight());
+  }
+
+  @Test
+  void should_notShareStyle_when_rulesStructural() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement first = doc.createElement("span");
+    DelphiElement second = doc.createElement("span");
+    body.appendChild(first);
+    body.appendChild(second);
+
+    doc.createStylesheet()
+        .addRule("span:first-child", prop -> prop.setPaddingLeft("4px"))
+        .build();
+
+    assertEquals("4px", first.getCurrentStyle().getPaddingLeft());
+    assertNull(second.getCurrentStyle().getPaddingLeft());
+  }
+}
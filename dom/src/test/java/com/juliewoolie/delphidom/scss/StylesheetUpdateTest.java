@@ -0,0 +1,105 @@
+package com.juliewoolie.delphidom.scss;
+
+import static com.juliewoolie.delphidom.TestUtil.createDoc;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.juliewoolie.chimera.ChimeraStylesheet;
+import com.juliewoolie.chimera.Rule;
+import com.juliewoolie.chimera.system.StyleObjectModel;
+import com.juliewoolie.delphidom.DelphiDocument;
+import com.juliewoolie.delphidom.DelphiElement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StylesheetUpdateTest {
+
+  @Test
+  void should_keepSourceOrder_when_merging() {
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+
+    ChimeraStylesheet first = doc.createStylesheet()
+        .addRule(".a", prop -> prop.setPaddingLeft("1px"))
+        .addRule("div", prop -> prop.setPaddingLeft("2px"))
+        .addRule("#b", prop -> prop.setPaddingLeft("3px"))
+        .build();
+
+    ChimeraStylesheet second = doc.createStylesheet()
+        .addRule("span", prop -> prop.setPaddingLeft("4px"))
+        .addRule(".c", prop -> prop.setPaddingLeft("5px"))
+        .build();
+
+    List<Rule> expected = new ArrayList<>();
+    for (int i = 0; i < first.getLength(); i++) {
+      expected.add(first.getRule(i));
+    }
+    for (int i = 0; i < second.getLength(); i++) {
+      expected.add(second.getRule(i));
+    }
+    expected.sort(Comparator.naturalOrder());
+
+    assertEquals(expected, styles.getRules());
+
+    styles.removeStylesheet(first);
+    expected.removeIf(rule -> rule.getStylesheet() == first);
+    assertEquals(expected, styles.getRules());
+  }
+
+  @Test
+  void should_notRestyle_when_noElementMatches() {
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement div = doc.createElement("div");
+    body.appendChild(div);
+
+    styles.setDeferringUpdates(true);
+
+    ChimeraStylesheet sheet = doc.createStylesheet()
+        .addRule(".missing", prop -> prop.setPaddingLeft("4px"))
+        .build();
+
+    assertFalse(styles.hasPendingUpdates());
+
+    styles.removeStylesheet(sheet);
+    assertFalse(styles.hasPendingUpdates());
+  }
+
+  @Test
+  void should_restyleMatching_when_sheetAddedAndRemoved() {
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement outer = doc.createElement("div");
+    outer.setClassName("theme");
+    DelphiElement inner = doc.createElement("span");
+    outer.appendChild(inner);
+    body.appendChild(outer);
+
+    ChimeraStylesheet sheet = doc.createStylesheet()
+        .addRule(".theme span", prop -> prop.setPaddingLeft("4px"))
+        .build();
+
+    assertEquals("4px", inner.getCurrentStyle().getPaddingLeft());
+
+    ChimeraStylesheet replacement = doc.createStylesheet()
+        .addRule(".theme > span", prop -> prop.setPaddingLeft("8px"))
+        .build();
+
+    assertEquals("8px", inner.getCurrentStyle().getPaddingLeft());
+
+    styles.removeStylesheet(replacement);
+    assertEquals("4px", inner.getCurrentStyle().getPaddingLeft());
+
+    styles.removeStylesheet(sheet);
+    assertNull(inner.getCurrentStyle().getPaddingLeft());
+    assertTrue(styles.getRules().isEmpty());
+  }
+}
@@ -0,0 +1,116 @@
+package com.juliewoolie.delphidom.scss;
+
+import static com.juliewoolie.delphidom.TestUtil.createDoc;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.juliewoolie.chimera.system.ElementStyleNode;
+import com.juliewoolie.chimera.system.StyleObjectModel;
+import com.juliewoolie.delphidom.DelphiDocument;
+import com.juliewoolie.delphidom.DelphiElement;
+import com.juliewoolie.delphidom.Text;
+import com.juliewoolie.dom.Attributes;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TextStyleTest {
+
+  @Test
+  void should_notCreateStyleNode_when_textAdded() {
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement div = doc.createElement("div");
+    Text text = doc.createText("hello");
+    DelphiElement span = doc.createElement("span");
+
+    div.appendChild(text);
+    div.appendChild(span);
+    body.appendChild(div);
+
+    assertNull(styles.getStyleNode(text));
+
+    ElementStyleNode divNode = (ElementStyleNode) styles.getStyleNode(div);
+    assertEquals(1, divNode.getChildren().size());
+    assertEquals(styles.getStyleNode(span), divNode.getChildren().getFirst());
+  }
+
+  @Test
+  void should_keepElementOrder_when_insertedBetweenText() {
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement first = doc.createElement("div");
+    DelphiElement last = doc.createElement("div");
+
+    body.appendChild(doc.createText("a"));
+    body.appendChild(first);
+    body.appendChild(doc.createText("b"));
+    body.appendChild(last);
+
+    DelphiElement middle = doc.createElement("span");
+    body.insertBefore(middle, last);
+
+    ElementStyleNode bodyNode = (ElementStyleNode) styles.getStyleNode(body);
+    assertEquals(3, bodyNode.getChildren().size());
+    assertEquals(styles.getStyleNode(first), bodyNode.getChildren().get(0));
+    assertEquals(styles.getStyleNode(middle), bodyNode.getChildren().get(1));
+    assertEquals(styles.getStyleNode(last), bodyNode.getChildren().get(2));
+  }
+
+  @Test
+  void should_useParentStyle_when_textStyleRequested() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement div = doc.createElement("div");
+    Text text = doc.createText("hello");
+    div.appendChild(text);
+    body.appendChild(div);
+
+    div.setAttribute(Attributes.STYLE, "color: red;");
+    String red = doc.getCurrentStyle(text).getColor();
+
+    assertNotNull(red);
+    assertEquals(div.getCurrentStyle().getColor(), red);
+
+    div.setAttribute(Attributes.STYLE, "color: blue;");
+    assertEquals(div.getCurrentStyle().getColor(), doc.getCurrentStyle(text).getColor());
+  }
+
+  @Test
+  void should_onlyCreateElementStyleNodes_when_documentHasText() {
+    final int elements = 1000;
+
+    DelphiDocument doc = createDoc();
+    StyleObjectModel styles = doc.getStyles();
+    DelphiElement body = doc.getBody();
+
+    int rootNodes = styles.getStyleNodes().size();
+    List<Text> texts = new ArrayList<>(elements);
+
+    // Every element has a text child, 2000 nodes in total
+    for (int i = 0; i < elements; i++) {
+      DelphiElement div = doc.createElement("div");
+      Text text = doc.createText("line " + i);
+
+      div.appendChild(text);
+      body.appendChild(div);
+      texts.add(text);
+    }
+
+    doc.createStylesheet()
+        .addRule("div", prop -> prop.setColor("red").setPaddingLeft("1px"))
+        .build();
+
+    assertEquals(rootNodes + elements, styles.getStyleNodes().size());
+
+    for (Text text : texts) {
+      assertNull(styles.getStyleNode(text));
+    }
+  }
+}
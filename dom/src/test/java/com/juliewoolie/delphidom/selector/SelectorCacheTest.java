@@ -0,0 +1,54 @@
+package com.juliewoolie.delphidom.selector;
+
+import static com.juliewoolie.delphidom.TestUtil.createDoc;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.juliewoolie.chimera.selector.SelectorCache;
+import com.juliewoolie.delphidom.DelphiDocument;
+import com.juliewoolie.delphidom.DelphiElement;
+import com.juliewoolie.dom.ParserException;
+import org.junit.jupiter.api.Test;
+
+class SelectorCacheTest {
+
+  @Test
+  void should_reuseSelector_when_sameQuery() {
+    SelectorCache cache = SelectorCache.get();
+    cache.clear();
+
+    assertSame(cache.getOrParse(".slot.active"), cache.getOrParse(".slot.active"));
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  void should_notCache_when_queryInvalid() {
+    SelectorCache cache = SelectorCache.get();
+    cache.clear();
+
+    assertThrows(ParserException.class, () -> cache.getOrParse("div["));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void should_hitCache_when_querying() {
+    SelectorCache cache = SelectorCache.get();
+    cache.clear();
+
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement slot = doc.createElement("div");
+    slot.setClassName("slot active");
+    body.appendChild(slot);
+
+    assertSame(slot, doc.querySelector(".slot.active"));
+    assertSame(slot, body.querySelector(".slot.active"));
+    assertEquals(1, body.querySelectorAll(".slot.active").size());
+
+    assertEquals(1, cache.getMisses());
+    assertEquals(2, cache.getHits());
+  }
+}
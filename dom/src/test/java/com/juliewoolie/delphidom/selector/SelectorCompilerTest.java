@@ -0,0 +1,97 @@
+package com.juliewoolie.delphidom.selector;
+
+import static com.juliewoolie.delphidom.TestUtil.createDoc;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.juliewoolie.chimera.parse.Chimera;
+import com.juliewoolie.chimera.selector.Selector;
+import com.juliewoolie.chimera.selector.SelectorCompiler;
+import com.juliewoolie.delphidom.DelphiDocument;
+import com.juliewoolie.delphidom.DelphiElement;
+import com.juliewoolie.dom.Element;
+import com.juliewoolie.dom.Node;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+
+class SelectorCompilerTest {
+
+  static final String[] SELECTORS = {
+      "*",
+      "div",
+      "SPAN",
+      ".item",
+      ".item.active",
+      "#main",
+      "div#main",
+      "[data-x]",
+      "[data-x=\"1\"]",
+      "[data-x^=\"a\"]",
+      "[data-x*=\"b\"]",
+      ":not(.item)",
+      ":is(span, p)",
+      ":first-child",
+      ":nth-child(2n+1)",
+      "div span",
+      "div > span",
+      "#main .item",
+      "span + p",
+      "span ~ p",
+      "div > span.item ~ p",
+      "div, .active",
+      "body div > :not(span)",
+  };
+
+  @Test
+  void should_matchInterpreter_when_compiled() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement main = doc.createElement("div");
+    main.setId("main");
+    body.appendChild(main);
+
+    DelphiElement span = doc.createElement("span");
+    span.setClassName("item active");
+    span.setAttribute("data-x", "1");
+    main.appendChild(span);
+
+    DelphiElement p = doc.createElement("p");
+    p.setClassName("item");
+    p.setAttribute("data-x", "abc");
+    main.appendChild(p);
+
+    DelphiElement inner = doc.createElement("div");
+    main.appendChild(inner);
+
+    DelphiElement innerSpan = doc.createElement("span");
+    inner.appendChild(innerSpan);
+
+    List<Element> elements = new ArrayList<>();
+    collect(doc.getDocumentElement(), elements);
+
+    for (String query : SELECTORS) {
+      Selector selector = Chimera.parseSelector(query);
+      Predicate<Element> compiled = SelectorCompiler.compile(selector);
+
+      for (Element element : elements) {
+        assertEquals(
+            selector.test(element),
+            compiled.test(element),
+            query + " on " + element.getTagName()
+        );
+      }
+    }
+  }
+
+  static void collect(Element element, List<Element> out) {
+    out.add(element);
+
+    for (Node child : element.getChildren()) {
+      if (child instanceof Element childEl) {
+        collect(childEl, out);
+      }
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package com.juliewoolie.delphidom.selector;
+
+import static com.juliewoolie.delphidom.TestUtil.createDoc;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.juliewoolie.chimera.ChimeraSheetBuilder;
+import com.juliewoolie.chimera.parse.Chimera;
+import com.juliewoolie.chimera.selector.IndexResult;
+import com.juliewoolie.chimera.selector.Selector;
+import com.juliewoolie.chimera.selector.SiblingIndexCache;
+import com.juliewoolie.delphidom.DelphiDocument;
+import com.juliewoolie.delphidom.DelphiElement;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SiblingIndexCacheTest {
+
+  @Test
+  void should_buildOneEntry_when_siblingsTested() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    List<DelphiElement> rows = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      DelphiElement row = doc.createElement(i % 2 == 0 ? "div" : "span");
+      body.appendChild(row);
+      rows.add(row);
+    }
+
+    for (int i = 0; i < rows.size(); i++) {
+      IndexResult result = SiblingIndexCache.indexOfType(false, rows.get(i));
+      assertEquals(i / 2 + 1, result.index());
+      assertEquals(250, result.count());
+    }
+
+    SiblingIndexCache.Entry entry = body.getSiblingIndexEntry();
+    assertNotNull(entry);
+
+    assertEquals(250, SiblingIndexCache.indexOfType(true, rows.get(0)).index());
+    assertSame(entry, body.getSiblingIndexEntry());
+  }
+
+  @Test
+  void should_updateIndices_when_childInserted() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement div1 = doc.createElement("div");
+    DelphiElement div2 = doc.createElement("div");
+    body.appendChild(div1);
+    body.appendChild(div2);
+
+    Selector first = Chimera.parseSelector(":first-of-type");
+    Selector only = Chimera.parseSelector(":only-of-type");
+
+    assertTrue(first.test(div1));
+    assertFalse(first.test(div2));
+
+    DelphiElement div0 = doc.createElement("div");
+    body.insertBefore(div0, div1);
+
+    assertTrue(first.test(div0));
+    assertFalse(first.test(div1));
+
+    body.removeChild(div0);
+    body.removeChild(div2);
+
+    assertTrue(only.test(div1));
+  }
+
+  @Test
+  void should_restyleLastOfType_when_childRemoved() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    doc.getStyles().addStylesheet(
+        new ChimeraSheetBuilder()
+            .addRule("div:last-of-type", prop -> prop.setPaddingLeft("4px"))
+            .build()
+    );
+
+    DelphiElement div1 = doc.createElement("div");
+    DelphiElement div2 = doc.createElement("div");
+    DelphiElement div3 = doc.createElement("div");
+    body.appendChild(div1);
+    body.appendChild(div2);
+    body.appendChild(div3);
+
+    assertEquals("4px", div3.getCurrentStyle().getPaddingLeft());
+
+    // Siblings are restyled while the removal is dispatched, before their
+    // sibling indices are updated
+    body.removeChild(div1);
+
+    assertEquals("4px", div3.getCurrentStyle().getPaddingLeft());
+    assertNull(div2.getCurrentStyle().getPaddingLeft());
+
+    body.removeChild(div3);
+    assertEquals("4px", div2.getCurrentStyle().getPaddingLeft());
+  }
+
+  @Test
+  void should_onlyInvalidateChangedParent_when_childAdded() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement list1 = doc.createElement("div");
+    DelphiElement list2 = doc.createElement("div");
+    body.appendChild(list1);
+    body.appendChild(list2);
+
+    DelphiElement item1 = doc.createElement("span");
+    DelphiElement item2 = doc.createElement("span");
+    list1.appendChild(item1);
+    list2.appendChild(item2);
+
+    SiblingIndexCache.indexOfType(false, item1);
+    SiblingIndexCache.indexOfType(false, item2);
+
+    list2.appendChild(doc.createElement("span"));
+
+    assertNotNull(list1.getSiblingIndexEntry());
+    assertNull(list2.getSiblingIndexEntry());
+
+    assertEquals(1, SiblingIndexCache.indexOfType(false, item1).count());
+    assertEquals(2, SiblingIndexCache.indexOfType(false, item2).count());
+  }
+
+  @Test
+  void should_collectEntry_when_documentDiscarded() throws InterruptedException {
+    WeakReference<SiblingIndexCache.Entry> ref = createIndexedDoc();
+
+    for (int i = 0; i < 50 && ref.get() != null; i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+
+    assertNull(ref.get());
+  }
+
+  private static WeakReference<SiblingIndexCache.Entry> createIndexedDoc() {
+    DelphiDocument doc = createDoc();
+    DelphiElement body = doc.getBody();
+
+    DelphiElement div = null;
+    for (int i = 0; i < 10; i++) {
+      div = doc.createElement("div");
+      body.appendChild(div);
+    }
+
+    Selector last = Chimera.parseSelector(":last-of-type");
+    assertTrue(last.test(div));
+
+    return new WeakReference<>(body.getSiblingIndexEntry());
+  }
+}
@@ -11,6 +11,7 @@ import com.juliewoolie.dom.style.Primitive;
 import com.juliewoolie.dom.style.Primitive.Unit;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import java.util.List;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.joml.Vector2f;
 
@@ -39,6 +40,9 @@ public abstract class LayoutBox extends LayoutNode {
   protected final ComputedStyleSet cstyle;
   protected final List<LayoutNode> nodes = new ObjectArrayList<>();
 
+  @Getter(AccessLevel.NONE)
+  private final MeasureCache measureCache = new MeasureCache();
+
   public LayoutBox(LayoutStyle style, ComputedStyleSet cstyle) {
     this.style = style;
     this.cstyle = cstyle;
@@ -186,7 +190,54 @@ public abstract class LayoutBox extends LayoutNode {
     layout();
   }
 
+  // A box whose size is decided by its own style alone, changes inside
+  // it can't change its size, so it can be laid out without its parent
+  public boolean isLayoutBoundary() {
+    return isFixedSize(cstyle.width) && isFixedSize(cstyle.height);
+  }
+
+  private static boolean isFixedSize(ValueOrAuto v) {
+    return v.isPrimitive() && !v.is(Unit.PERCENT);
+  }
+
+  // Measures and lays out this box again in the same context it was last
+  // measured in. Returns false if that's not possible, or if the box's
+  // size changed, in which case its parent has to be laid out again
+  public boolean relayout(Vector2f screenSize) {
+    LayoutContext ctx = measureCache.restoreContext(screenSize);
+    if (ctx == null) {
+      return false;
+    }
+
+    Vector2f before = new Vector2f(size);
+    measureBox(ctx);
+
+    if (!before.equals(size)) {
+      return false;
+    }
+
+    layout();
+    return true;
+  }
+
   public boolean measureBox(LayoutContext ctx) {
+    // Nothing in this subtree changed and the available space is the
+    // same as last time, so the result would be the same too
+    if (!dirty && measureCache.matches(size, ctx)) {
+      size.set(measureCache.result);
+      return measureCache.changed;
+    }
+
+    Vector2f startSize = new Vector2f(size);
+    dirty = false;
+
+    boolean changed = computeBoxSize(ctx);
+    measureCache.store(startSize, ctx, size, changed);
+
+    return changed;
+  }
+
+  private boolean computeBoxSize(LayoutContext ctx) {
     transferComputedStyle(ctx);
 
     final float prex = size.x;
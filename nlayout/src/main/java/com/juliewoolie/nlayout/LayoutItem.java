@@ -6,16 +6,27 @@ public class LayoutItem extends LayoutNode {
 
   public MeasureFunc measureFunc;
 
+  // Measure functions don't depend on the available space, so the last
+  // result stays valid until the item is marked dirty
+  private final Vector2f measured = new Vector2f();
+
   public LayoutItem() {
     super();
   }
 
   public void measure(Vector2f out) {
+    if (!dirty) {
+      out.set(measured);
+      return;
+    }
+
     if (measureFunc == null) {
       out.set(0);
-      return;
+    } else {
+      measureFunc.measure(out);
     }
 
-    measureFunc.measure(out);
+    measured.set(out);
+    dirty = false;
   }
 }
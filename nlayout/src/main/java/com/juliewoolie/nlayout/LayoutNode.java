@@ -9,7 +9,19 @@ public abstract class LayoutNode {
 
   public int domIndex = 0;
 
+  // Set when the node's style or content changed, meaning any cached
+  // measurement must be thrown away. New nodes start out dirty
+  boolean dirty = true;
+
   public LayoutNode() {
 
   }
+
+  public boolean isDirty() {
+    return dirty;
+  }
+
+  public void markDirty() {
+    dirty = true;
+  }
 }
@@ -0,0 +1,56 @@
+package com.juliewoolie.nlayout;
+
+import org.joml.Vector2f;
+
+// Result of a box's last measurement and the inputs it was computed
+// with. If a box isn't dirty and is measured again with the same inputs,
+// the cached size is used instead of measuring its entire subtree again
+class MeasureCache {
+
+  private final Vector2f startSize = new Vector2f();
+  private final Vector2f available = new Vector2f();
+  private final Vector2f screenSize = new Vector2f();
+  private boolean widthDefinite;
+  private boolean heightDefinite;
+
+  final Vector2f result = new Vector2f();
+  boolean changed;
+
+  private boolean valid = false;
+
+  boolean matches(Vector2f startSize, LayoutContext ctx) {
+    return valid
+        && this.startSize.equals(startSize)
+        && available.equals(ctx.parentSizes.peek())
+        && screenSize.equals(ctx.screenSize)
+        && widthDefinite == ctx.isWidthDefinite()
+        && heightDefinite == ctx.isHeightDefinite();
+  }
+
+  // Recreates the context the box was last measured in, so it can be
+  // measured again without measuring its parents first. Returns null if
+  // the box hasn't been measured yet or the screen size has changed
+  LayoutContext restoreContext(Vector2f screenSize) {
+    if (!valid || !this.screenSize.equals(screenSize)) {
+      return null;
+    }
+
+    LayoutContext ctx = new LayoutContext(screenSize);
+    ctx.parentSizes.push(new Vector2f(available));
+    ctx.definiteWidths.push(widthDefinite);
+    ctx.definiteHeights.push(heightDefinite);
+
+    return ctx;
+  }
+
+  void store(Vector2f startSize, LayoutContext ctx, Vector2f result, boolean changed) {
+    this.startSize.set(startSize);
+    this.available.set(ctx.parentSizes.peek());
+    this.screenSize.set(ctx.screenSize);
+    this.widthDefinite = ctx.isWidthDefinite();
+    this.heightDefinite = ctx.isHeightDefinite();
+    this.result.set(result);
+    this.changed = changed;
+    this.valid = true;
+  }
+}
@@ -0,0 +1,74 @@
+package com.juliewoolie.nlayout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.juliewoolie.chimera.ComputedStyleSet;
+import com.juliewoolie.chimera.ValueOrAuto;
+import com.juliewoolie.dom.style.Primitive;
+import com.juliewoolie.dom.style.Primitive.Unit;
+import org.joml.Vector2f;
+import org.junit.jupiter.api.Test;
+
+public class LayoutBoundaryTest {
+
+  static LayoutItem item(float[] width) {
+    LayoutItem item = new LayoutItem();
+    item.measureFunc = out -> out.set(width[0], width[0]);
+    return item;
+  }
+
+  @Test
+  void should_relayoutInPlace_when_boundaryContentChanges() {
+    Vector2f screen = new Vector2f(3, 2);
+    float[] width = {0.25f};
+
+    FlowLayoutBox root = new FlowLayoutBox(new LayoutStyle(), new ComputedStyleSet());
+    FlowLayoutBox boundary = new FlowLayoutBox(new LayoutStyle(), new ComputedStyleSet());
+    boundary.cstyle.width = ValueOrAuto.valueOf(Primitive.create(40, Unit.PX));
+    boundary.cstyle.height = ValueOrAuto.valueOf(Primitive.create(20, Unit.PX));
+
+    LayoutItem text = item(width);
+    boundary.nodes.add(text);
+    root.nodes.add(boundary);
+
+    root.reflow(new LayoutContext(screen));
+    assertTrue(boundary.isLayoutBoundary());
+    assertFalse(root.isLayoutBoundary());
+
+    Vector2f boundarySize = new Vector2f(boundary.size);
+    Vector2f rootSize = new Vector2f(root.size);
+
+    width[0] = 0.5f;
+    text.markDirty();
+    boundary.markDirty();
+
+    assertTrue(boundary.relayout(screen));
+    assertEquals(0.5f, text.size.x);
+    assertEquals(boundarySize, boundary.size);
+    assertEquals(rootSize, root.size);
+  }
+
+  @Test
+  void should_failRelayout_when_sizeChanges() {
+    Vector2f screen = new Vector2f(3, 2);
+    float[] width = {0.25f};
+
+    FlowLayoutBox root = new FlowLayoutBox(new LayoutStyle(), new ComputedStyleSet());
+    FlowLayoutBox auto = new FlowLayoutBox(new LayoutStyle(), new ComputedStyleSet());
+
+    LayoutItem text = item(width);
+    auto.nodes.add(text);
+    root.nodes.add(auto);
+
+    root.reflow(new LayoutContext(screen));
+    assertFalse(auto.isLayoutBoundary());
+
+    width[0] = 0.5f;
+    text.markDirty();
+    auto.markDirty();
+
+    assertFalse(auto.relayout(screen));
+  }
+}
@@ -0,0 +1,77 @@
+package com.juliewoolie.nlayout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.juliewoolie.chimera.ComputedStyleSet;
+import org.joml.Vector2f;
+import org.junit.jupiter.api.Test;
+
+public class MeasureCacheTest {
+
+  static LayoutItem countingItem(int[] calls, float width) {
+    LayoutItem item = new LayoutItem();
+    item.measureFunc = out -> {
+      calls[0]++;
+      out.set(width, 1);
+    };
+    return item;
+  }
+
+  @Test
+  void should_reuseMeasurements_when_nothingChanged() {
+    Vector2f screen = new Vector2f(3, 2);
+    int[] calls = new int[1];
+
+    FlowLayoutBox root = new FlowLayoutBox(new LayoutStyle(), new ComputedStyleSet());
+    FlowLayoutBox child = new FlowLayoutBox(new LayoutStyle(), new ComputedStyleSet());
+
+    LayoutItem text1 = countingItem(calls, 1);
+    LayoutItem text2 = countingItem(calls, 1);
+
+    child.nodes.add(text1);
+    root.nodes.add(child);
+    root.nodes.add(text2);
+
+    root.reflow(new LayoutContext(screen));
+    int firstPass = calls[0];
+    Vector2f size = new Vector2f(root.size);
+
+    root.reflow(new LayoutContext(screen));
+    assertEquals(firstPass, calls[0]);
+    assertEquals(size, root.size);
+    assertFalse(child.isDirty());
+  }
+
+  @Test
+  void should_remeasureOnlyChangedItem_when_itemMarkedDirty() {
+    Vector2f screen = new Vector2f(3, 2);
+    int[] changedCalls = new int[1];
+    int[] otherCalls = new int[1];
+
+    FlowLayoutBox root = new FlowLayoutBox(new LayoutStyle(), new ComputedStyleSet());
+    FlowLayoutBox changedParent = new FlowLayoutBox(new LayoutStyle(), new ComputedStyleSet());
+    FlowLayoutBox otherParent = new FlowLayoutBox(new LayoutStyle(), new ComputedStyleSet());
+
+    LayoutItem changed = countingItem(changedCalls, 1);
+    LayoutItem other = countingItem(otherCalls, 1);
+
+    changedParent.nodes.add(changed);
+    otherParent.nodes.add(other);
+    root.nodes.add(changedParent);
+    root.nodes.add(otherParent);
+
+    root.reflow(new LayoutContext(screen));
+    int changedFirst = changedCalls[0];
+    int otherFirst = otherCalls[0];
+
+    changed.markDirty();
+    changedParent.markDirty();
+    root.markDirty();
+
+    root.reflow(new LayoutContext(screen));
+
+    assertEquals(changedFirst + 1, changedCalls[0]);
+    assertEquals(otherFirst, otherCalls[0]);
+  }
+}
@@ -1,6 +1,9 @@
 package com.juliewoolie.delphiplugin;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import com.juliewoolie.chimera.system.StyleObjectModel;
 import com.juliewoolie.delphidom.DelphiElement;
 import com.juliewoolie.delphidom.DelphiNode;
 import com.juliewoolie.delphidom.event.MouseEventImpl;
@@ -164,6 +167,7 @@ public class PageInputSystem {
   }
 
   private void propagateFlagState(boolean state, NodeFlag flag, DelphiNode node) {
+    List<DelphiNode> changed = new ArrayList<>();
     DelphiNode p = node;
 
     while (p != null) {
@@ -173,13 +177,16 @@ public class PageInputSystem {
         p.removeFlag(flag);
       }
 
-      DelphiElement parent = p.getParent();
+      changed.add(p);
+      p = p.getParent();
+    }
 
-      if (parent == null) {
-        view.getDocument().getStyles().updateDomStyle(p);
-      }
+    // Restyle top-down after all flags are set, so selectors depending on an
+    // ancestor's state and inherited properties both see the final state
+    StyleObjectModel styles = view.getDocument().getStyles();
 
-      p = parent;
+    for (int i = changed.size() - 1; i >= 0; i--) {
+      styles.flagChanged(changed.get(i), flag);
     }
   }
 
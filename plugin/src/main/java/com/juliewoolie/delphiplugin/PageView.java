@@ -385,6 +385,7 @@ public class PageView implements ExtendedView {
     renderer.init();
 
     document.getStyles().setUpdateCallbacks(renderer);
+    document.getStyles().setDeferringUpdates(true);
     state = ViewState.LOADED;
 
     g.setPostRunListener(event -> {
@@ -34,6 +34,7 @@ import com.juliewoolie.delphiplugin.devtools.DevtoolModule;
 import com.juliewoolie.delphiplugin.gizmo.DelphiGizmo;
 import com.juliewoolie.delphiplugin.gizmo.GizmoManager;
 import com.juliewoolie.delphiplugin.resource.PluginResources;
+import com.juliewoolie.delphiplugin.resource.StylesheetCache;
 import com.juliewoolie.dom.Canvas;
 import com.juliewoolie.dom.CanvasElement;
 import com.juliewoolie.dom.Element;
@@ -193,6 +194,7 @@ public class DelphiCommand {
 
     literal.then(debugArguments());
     literal.then(reloadConfig());
+    literal.then(styleCache());
 
     literal.then(devtools());
 
@@ -500,6 +502,39 @@ public class DelphiCommand {
         .build();
   }
 
+  private static LiteralCommandNode<CommandSourceStack> styleCache() {
+    return literal("style-cache")
+        .requires(stack -> stack.getSender().hasPermission(Permissions.DEBUG))
+        .then(literal("info")
+            .executes(c -> {
+              StylesheetCache cache = getPlugin().getPluginResources().getStylesheetCache();
+              NumberFormat percent = NumberFormat.getPercentInstance();
+
+              c.getSource().getSender().sendMessage(
+                  prefixTranslatable("delphi.styleCache.info",
+                      NamedTextColor.GRAY,
+                      Component.text(cache.size()),
+                      Component.text(cache.getHits()),
+                      Component.text(cache.getMisses()),
+                      Component.text(percent.format(cache.getHitRate()))
+                  )
+              );
+              return SINGLE_SUCCESS;
+            })
+        )
+        .then(literal("clear")
+            .executes(c -> {
+              getPlugin().getPluginResources().getStylesheetCache().clear();
+
+              c.getSource().getSender().sendMessage(
+                  prefixTranslatable("delphi.styleCache.cleared", NamedTextColor.GRAY)
+              );
+              return SINGLE_SUCCESS;
+            })
+        )
+        .build();
+  }
+
   private static LiteralCommandNode<CommandSourceStack> close() {
     return literal("close")
         .then(argument("instance name", new InstanceNameType())
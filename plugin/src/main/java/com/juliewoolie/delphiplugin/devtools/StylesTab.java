@@ -460,7 +460,7 @@ public class StylesTab extends DevToolTab {
 
     @Override
     public void handleEvent(MouseEvent event) {
-      Value<Object> val = set.get(ref.property);
+      Value<Object> val = set.orNull(ref.property);
       if (val == null) {
         return;
       }
@@ -0,0 +1,7 @@
+package com.juliewoolie.delphiplugin.resource;
+
+// Modification time and size of a module file, tells if a file changed
+// without reading it
+public record FileStamp(long modified, long size) {
+
+}
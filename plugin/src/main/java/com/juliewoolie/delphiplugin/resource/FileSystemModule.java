@@ -6,6 +6,7 @@ import java.io.StringWriter;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -38,6 +39,12 @@ public abstract class FileSystemModule implements IoModule {
     return writer.getBuffer();
   }
 
+  public @NotNull FileStamp getFileStamp(@NotNull ResourcePath path) throws IOException {
+    Path p = sourcePath.resolve(path.path());
+    BasicFileAttributes attr = Files.readAttributes(p, BasicFileAttributes.class);
+    return new FileStamp(attr.lastModifiedTime().toMillis(), attr.size());
+  }
+
   @Override
   public @NotNull Collection<String> getModulePaths(@NotNull ResourcePath pathSoFar) {
     Path path = sourcePath.resolve(pathSoFar.path());
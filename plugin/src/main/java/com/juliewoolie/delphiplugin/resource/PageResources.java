@@ -26,7 +26,6 @@ import lombok.Getter;
 import lombok.Setter;
 import com.juliewoolie.chimera.ChimeraSheetBuilder;
 import com.juliewoolie.chimera.ChimeraStylesheet;
-import com.juliewoolie.chimera.parse.Chimera;
 import com.juliewoolie.delphi.DocumentView;
 import com.juliewoolie.delphi.PlayerSet;
 import com.juliewoolie.delphi.resource.ApiModule;
@@ -275,9 +274,35 @@ public class PageResources implements ViewResources {
   }
 
   public Result<Stylesheet, DelphiException> loadStylesheet(ResourcePath path) {
+    StylesheetCache cache = pluginResources.getStylesheetCache();
+    String key = path.toString();
+
+    // Files can be checked for changes without reading them
+    if (module instanceof FileSystemModule fs) {
+      FileStamp stamp;
+
+      try {
+        stamp = fs.getFileStamp(path);
+      } catch (IOException exc) {
+        return Result.ioError(exc);
+      }
+
+      ChimeraStylesheet cached = cache.get(key, stamp);
+      if (cached != null) {
+        cached.setSource(key);
+        return Result.ok(cached);
+      }
+
+      return loadBuffer(path).map(buf -> {
+        ChimeraStylesheet sheet = cache.compile(key, stamp, key, buf);
+        sheet.setSource(key);
+        return sheet;
+      });
+    }
+
     return loadBuffer(path).map(buf -> {
-      ChimeraStylesheet sheet = Chimera.parseSheet(buf, path.toString());
-      sheet.setSource(path.toString());
+      ChimeraStylesheet sheet = cache.getOrCompile(key, key, buf);
+      sheet.setSource(key);
       return sheet;
     });
   }
@@ -336,7 +361,11 @@ public class PageResources implements ViewResources {
     @Override
     public @NotNull Stylesheet parseStylesheet(@NotNull String string) {
       Objects.requireNonNull(string, "Null string");
-      return Chimera.parseSheet(new StringBuffer(string), "<stylesheet>");
+      // Programmatic sheets have no path, key them by their contents
+      String key = "<stylesheet>#" + Integer.toHexString(string.hashCode());
+
+      return resources.pluginResources.getStylesheetCache()
+          .getOrCompile(key, "<stylesheet>", string);
     }
 
     @Override
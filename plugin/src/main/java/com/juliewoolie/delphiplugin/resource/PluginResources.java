@@ -65,6 +65,9 @@ public class PluginResources implements DelphiResources {
   @Getter
   private ChimeraStylesheet defaultStyle;
 
+  @Getter
+  private final StylesheetCache stylesheetCache = new StylesheetCache();
+
   public DelphiPlugin plugin;
 
   public PluginResources(DelphiPlugin plugin, Path modulesDir) {
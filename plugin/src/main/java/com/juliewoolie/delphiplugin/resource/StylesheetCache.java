@@ -0,0 +1,133 @@
+package com.juliewoolie.delphiplugin.resource;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.juliewoolie.chimera.ChimeraStylesheet;
+import com.juliewoolie.chimera.parse.Chimera;
+import com.juliewoolie.chimera.parse.ChimeraError;
+import com.juliewoolie.delphidom.Loggers;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+// Plugin-wide cache of compiled stylesheets, lets every document opened
+// from the same file skip compiling the file again. Entries are keyed by
+// resource path and validated against a stamp of the source, a file's
+// modification time and size, or a hash of the contents when there's no
+// file to check.
+//
+// Documents are given a copy of the cached sheet, as the devtools edit
+// rules in place
+public class StylesheetCache {
+
+  private static final Logger LOGGER = Loggers.getDocumentLogger();
+
+  static final int MAX_ENTRIES = 128;
+
+  private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  private long hits = 0;
+  private long misses = 0;
+
+  // Gets a copy of the cached sheet, if the entry's stamp still matches
+  public synchronized @Nullable ChimeraStylesheet get(String key, Object stamp) {
+    Entry entry = entries.get(key);
+
+    if (entry == null || !entry.stamp.equals(stamp)) {
+      return null;
+    }
+
+    hits++;
+
+    // Report errors on every load, not just the one that compiled it
+    for (ChimeraError error : entry.errors) {
+      logError(error);
+    }
+
+    return entry.stylesheet.copy();
+  }
+
+  public synchronized ChimeraStylesheet compile(
+      String key,
+      Object stamp,
+      String sourceName,
+      CharSequence buf
+  ) {
+    misses++;
+
+    List<ChimeraError> errors = new ArrayList<>();
+    ChimeraStylesheet sheet = Chimera.parseSheet(buf, sourceName, error -> {
+      errors.add(error);
+      logError(error);
+    });
+
+    entries.put(key, new Entry(stamp, sheet, List.copyOf(errors)));
+
+    return sheet.copy();
+  }
+
+  // For sources without a file, stamped with a hash of their contents
+  public synchronized ChimeraStylesheet getOrCompile(
+      String key,
+      String sourceName,
+      CharSequence buf
+  ) {
+    HashCode stamp = contentStamp(buf);
+    ChimeraStylesheet sheet = get(key, stamp);
+
+    if (sheet != null) {
+      return sheet;
+    }
+
+    return compile(key, stamp, sourceName, buf);
+  }
+
+  public static HashCode contentStamp(CharSequence buf) {
+    return Hashing.murmur3_128().hashUnencodedChars(buf);
+  }
+
+  private static void logError(ChimeraError error) {
+    LOGGER.atLevel(error.getLevel())
+        .setMessage(error.getFormattedError())
+        .log();
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    hits = 0;
+    misses = 0;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized float getHitRate() {
+    long total = hits + misses;
+    if (total == 0) {
+      return 0f;
+    }
+
+    return (float) hits / total;
+  }
+
+  record Entry(Object stamp, ChimeraStylesheet stylesheet, List<ChimeraError> errors) {
+
+  }
+}
@@ -3,11 +3,17 @@ package com.juliewoolie.delphiplugin.resource;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 import java.nio.file.Path;
 import java.util.Collection;
+import com.juliewoolie.chimera.ChimeraStylesheet;
+import com.juliewoolie.delphidom.DelphiDocument;
+import com.juliewoolie.delphidom.DelphiElement;
+import com.juliewoolie.dom.Attributes;
+import com.juliewoolie.dom.TagNames;
 import com.juliewoolie.delphi.resource.DelphiException;
 import com.juliewoolie.delphi.resource.DirectoryModule;
 import com.juliewoolie.delphi.resource.JarResourceModule;
@@ -76,4 +82,27 @@ class PluginResourcesTest {
       val.loadString(ResourcePath.create("module").addElement("path.xml"));
     });
   }
-}
\ No newline at end of file
+
+  @Test
+  void testScopedStyleHidden() {
+    PLUGIN_RESOURCES.loadDefaultStyle();
+    ChimeraStylesheet defaultStyle = PLUGIN_RESOURCES.getDefaultStyle();
+    assertNotNull(defaultStyle);
+
+    DelphiDocument doc = DelphiDocument.createEmpty();
+    doc.getStyles().setDefaultStyleSheet(defaultStyle);
+    doc.addStylesheet(defaultStyle);
+
+    DelphiElement widget = doc.createElement("div");
+    doc.getBody().appendChild(widget);
+
+    DelphiElement style = doc.createElement(TagNames.STYLE);
+    style.setAttribute(Attributes.SCOPED, "");
+    style.appendChild(doc.createText("div { padding-left: 3px; }"));
+    widget.appendChild(style);
+
+    // The sheet's source text must not be rendered
+    assertEquals("none", style.getCurrentStyle().getDisplay());
+    assertEquals("3px", widget.getCurrentStyle().getPaddingLeft());
+  }
+}
@@ -0,0 +1,142 @@
+package com.juliewoolie.delphirender;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Display;
+import org.bukkit.util.Transformation;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+// Display entities of killed render objects are parked here, hidden at
+// zero scale, instead of being removed. Spawning an object takes a
+// parked entity of the same kind before spawning a new one, so hiding and
+// showing elements or tooltips doesn't keep adding and removing entities.
+//
+// Entities are only reused by render objects of the same type, so the
+// entity state set when it was first spawned still applies
+public class EntityPool {
+
+  static final int MAX_PARKED = 256;
+
+  // 30 seconds
+  static final long MAX_IDLE_TICKS = 30 * 20;
+
+  static final Transformation PARKED_TRANSFORM = new Transformation(
+      new Vector3f(),
+      new Quaternionf(),
+      new Vector3f(0),
+      new Quaternionf()
+  );
+
+  private final RenderSystem system;
+  private final Map<Key, ArrayDeque<Parked>> parked = new Object2ObjectOpenHashMap<>();
+
+  private int size = 0;
+  private long currentTick = 0;
+
+  public EntityPool(RenderSystem system) {
+    this.system = system;
+  }
+
+  public <E extends Display> E checkout(
+      Class<?> owner,
+      Class<E> type,
+      Location location,
+      Consumer<E> init
+  ) {
+    ArrayDeque<Parked> queue = parked.get(new Key(owner, type));
+
+    while (queue != null && !queue.isEmpty()) {
+      Parked p = queue.pollLast();
+      size--;
+
+      // Entities are removed when their chunk unloads
+      if (!p.entity.isValid()) {
+        continue;
+      }
+
+      p.entity.teleport(location);
+      return type.cast(p.entity);
+    }
+
+    World world = location.getWorld();
+    E entity = world.spawn(location, type, init::accept);
+    system.addEntity(entity);
+
+    return entity;
+  }
+
+  public void park(Class<?> owner, Class<? extends Display> type, Display entity) {
+    if (!entity.isValid()) {
+      system.removeEntity(entity);
+      return;
+    }
+
+    if (size >= MAX_PARKED) {
+      release(entity);
+      return;
+    }
+
+    entity.setTransformation(PARKED_TRANSFORM);
+
+    parked.computeIfAbsent(new Key(owner, type), k -> new ArrayDeque<>())
+        .addLast(new Parked(entity, currentTick));
+
+    size++;
+  }
+
+  // Releases entities that have been parked for too long
+  public void tick() {
+    currentTick++;
+
+    if (size == 0) {
+      return;
+    }
+
+    long cutoff = currentTick - MAX_IDLE_TICKS;
+    Iterator<ArrayDeque<Parked>> it = parked.values().iterator();
+
+    while (it.hasNext()) {
+      ArrayDeque<Parked> queue = it.next();
+
+      // Oldest entities are at the head of the queue
+      while (!queue.isEmpty() && queue.peekFirst().parkedAt < cutoff) {
+        release(queue.pollFirst().entity);
+        size--;
+      }
+
+      if (queue.isEmpty()) {
+        it.remove();
+      }
+    }
+  }
+
+  // Forgets all parked entities, used after the render system has
+  // removed all of its entities itself
+  public void clear() {
+    parked.clear();
+    size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private void release(Display entity) {
+    system.removeEntity(entity);
+    entity.remove();
+  }
+
+  private record Key(Class<?> owner, Class<?> type) {
+
+  }
+
+  private record Parked(Display entity, long parkedAt) {
+
+  }
+}
@@ -15,6 +15,13 @@ public class FullStyle extends LayoutStyle {
   public Color borderColor = toBukkitColor(Properties.BORDER_COLOR.getDefaultValue());
   public Color outlineColor = toBukkitColor(Properties.OUTLINE_COLOR.getDefaultValue());
 
+  // Computed colors the converted colors above were created from, lets
+  // unchanged colors skip the conversion
+  com.juliewoolie.dom.style.Color textColorSource = Properties.COLOR.getDefaultValue();
+  com.juliewoolie.dom.style.Color backgroundColorSource = Properties.BACKGROUND_COLOR.getDefaultValue();
+  com.juliewoolie.dom.style.Color borderColorSource = Properties.BORDER_COLOR.getDefaultValue();
+  com.juliewoolie.dom.style.Color outlineColorSource = Properties.OUTLINE_COLOR.getDefaultValue();
+
   public BlockData backgroundBlock = null;
   public BlockData borderBlock = null;
   public BlockData outlineBlock = null;
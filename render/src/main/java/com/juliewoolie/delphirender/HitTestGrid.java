@@ -0,0 +1,134 @@
+package com.juliewoolie.delphirender;
+
+import com.juliewoolie.delphidom.DelphiElement;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import java.util.ArrayList;
+import java.util.List;
+import org.joml.Vector2f;
+
+// Uniform grid over the screen used to find the element under a cursor.
+// Each cell lists the visible elements overlapping it, so a lookup only
+// tests the few rectangles in the cursor's cell instead of every element
+// on the page.
+//
+// The grid isn't updated in place, the render system invalidates it
+// whenever layout, styles or the element set change, and it's rebuilt on
+// the next lookup
+class HitTestGrid {
+
+  static final int CELLS = 16;
+
+  private final List<Entry> entries = new ArrayList<>();
+  private final IntArrayList[] cells = new IntArrayList[CELLS * CELLS];
+
+  private float cellWidth;
+  private float cellHeight;
+
+  private boolean valid = false;
+
+  HitTestGrid() {
+    for (int i = 0; i < cells.length; i++) {
+      cells[i] = new IntArrayList();
+    }
+  }
+
+  boolean isValid() {
+    return valid;
+  }
+
+  void invalidate() {
+    valid = false;
+  }
+
+  void clear(Vector2f screenSize) {
+    entries.clear();
+
+    for (IntArrayList cell : cells) {
+      cell.clear();
+    }
+
+    cellWidth = screenSize.x / CELLS;
+    cellHeight = screenSize.y / CELLS;
+
+    valid = true;
+  }
+
+  // Position is the top left corner, and the Y axis points up
+  void add(DelphiElement element, Vector2f pos, Vector2f size, float depth) {
+    Entry entry = new Entry(element, pos.x, pos.y - size.y, pos.x + size.x, pos.y, depth);
+
+    int index = entries.size();
+    entries.add(entry);
+
+    int cx0 = cellX(entry.minX);
+    int cx1 = cellX(entry.maxX);
+    int cy0 = cellY(entry.minY);
+    int cy1 = cellY(entry.maxY);
+
+    for (int cy = cy0; cy <= cy1; cy++) {
+      for (int cx = cx0; cx <= cx1; cx++) {
+        cells[cy * CELLS + cx].add(index);
+      }
+    }
+  }
+
+  // Finds the deepest element containing the cursor, later entries win
+  // ties
+  DelphiElement find(Vector2f cursor) {
+    if (entries.isEmpty()) {
+      return null;
+    }
+
+    IntArrayList cell = cells[cellY(cursor.y) * CELLS + cellX(cursor.x)];
+    Entry found = null;
+
+    for (int i = 0; i < cell.size(); i++) {
+      Entry entry = entries.get(cell.getInt(i));
+
+      if (!entry.contains(cursor)) {
+        continue;
+      }
+      if (found != null && found.depth > entry.depth) {
+        continue;
+      }
+
+      found = entry;
+    }
+
+    return found == null ? null : found.element;
+  }
+
+  // Rectangles and cursors outside the screen are clamped to the edge
+  // cells, so overflowing elements can still be hit
+  private int cellX(float x) {
+    return cellIndex(x, cellWidth);
+  }
+
+  private int cellY(float y) {
+    return cellIndex(y, cellHeight);
+  }
+
+  private static int cellIndex(float v, float cellSize) {
+    if (cellSize <= 0 || !Float.isFinite(v)) {
+      return 0;
+    }
+
+    int i = (int) Math.floor(v / cellSize);
+    return Math.clamp(i, 0, CELLS - 1);
+  }
+
+  private record Entry(
+      DelphiElement element,
+      float minX,
+      float minY,
+      float maxX,
+      float maxY,
+      float depth
+  ) {
+
+    boolean contains(Vector2f p) {
+      return p.x >= minX && p.x <= maxX
+          && p.y >= minY && p.y <= maxY;
+    }
+  }
+}
@@ -17,7 +17,8 @@ import com.juliewoolie.nlayout.LayoutContext;
 import com.juliewoolie.nlayout.LayoutItem;
 import com.juliewoolie.nlayout.LayoutNode;
 import com.juliewoolie.nlayout.MeasureFunc;
-import it.unimi.dsi.fastutil.objects.ObjectArrays;
+import java.util.List;
+import java.util.Objects;
 import org.joml.Vector2f;
 
 public class LayoutCall {
@@ -29,39 +30,92 @@ public class LayoutCall {
   static final MeasureFunc ZERO = out -> out.set(0);
 
   static void nlayout(ElementRenderObject root, Vector2f screenSize) {
-    RenderToLayoutMapper lookupMap = new RenderToLayoutMapper(100);
-    LayoutBox box = createLayoutTree(root, lookupMap);
-
-    // Apply visual style before layout calculation, as layout may change
-    // with visual changes, such as bold making text wider
-    for (int i = 0; i < lookupMap.length; i++) {
-      RenderObject obj = lookupMap.renderObjects[i];
-      if (obj instanceof ElementRenderObject ero) {
-        applyVisualStyle(ero.computedStyleSet, ero.style);
-      }
-    }
+    LayoutBox box = updateLayoutTree(root);
+
+    // Visual style is already applied by the render system when an
+    // object is created and when its style's visual or content bits
+    // change, so that doesn't have to be redone for the whole tree here
 
     LayoutContext ctx = new LayoutContext(screenSize);
     box.reflow(ctx);
 
-    for (int i = 0; i < lookupMap.length; i++) {
-      LayoutNode layout = lookupMap.layoutNodes[i];
-      RenderObject obj = lookupMap.renderObjects[i];
+    applyLayout(root);
+  }
+
+  // Lays out a layout boundary without its parent. Returns false if its
+  // size changed, meaning its parent has to be laid out as well
+  static boolean relayoutBoundary(ElementRenderObject boundary, Vector2f screenSize) {
+    LayoutBox box = updateLayoutTree(boundary);
+
+    if (!box.relayout(screenSize)) {
+      return false;
+    }
+
+    applyLayout(boundary);
+    return true;
+  }
+
+  // Copies the layout results onto the render objects, and flags the
+  // ones that moved or were resized for the next redraw
+  static void applyLayout(RenderObject obj) {
+    applyLayout(obj, false);
+  }
+
+  // Moving an element moves its whole subtree along with it, so children
+  // of a moved element count as moved too
+  static void applyLayout(RenderObject obj, boolean parentMoved) {
+    LayoutNode layout = obj.layoutNode;
+
+    float oldWidth = obj.size.x;
+    float oldHeight = obj.size.y;
 
-      obj.size.set(layout.size);
+    obj.size.set(layout.size);
+
+    boolean moved = parentMoved;
+
+    if (!obj.position.equals(layout.position)) {
       obj.moveTo(layout.position);
+      moved = true;
+    }
 
-      if (obj instanceof SliderRenderObject slider) {
-        slider.updateFromParentSize();
-      }
+    if (moved) {
+      obj.markRedraw(RenderObject.REDRAW_POSITION);
+    }
+
+    if (obj instanceof SliderRenderObject slider) {
+      slider.updateFromParentSize();
+    }
+
+    if (obj.size.x != oldWidth || obj.size.y != oldHeight) {
+      obj.markRedraw(RenderObject.REDRAW_SIZE);
+    }
+
+    if (!(obj instanceof ElementRenderObject ero)) {
+      return;
+    }
+
+    for (RenderObject childObject : ero.getChildObjects()) {
+      applyLayout(childObject, moved);
     }
   }
 
   static void applyVisualStyle(ComputedStyleSet cstyle, FullStyle style) {
-    style.textColor = toTextColor(cstyle.color);
-    style.backgroundColor = toBukkitColor(cstyle.backgroundColor);
-    style.borderColor = toBukkitColor(cstyle.borderColor);
-    style.outlineColor = toBukkitColor(cstyle.outlineColor);
+    if (!Objects.equals(cstyle.color, style.textColorSource)) {
+      style.textColor = toTextColor(cstyle.color);
+      style.textColorSource = cstyle.color;
+    }
+    if (!Objects.equals(cstyle.backgroundColor, style.backgroundColorSource)) {
+      style.backgroundColor = toBukkitColor(cstyle.backgroundColor);
+      style.backgroundColorSource = cstyle.backgroundColor;
+    }
+    if (!Objects.equals(cstyle.borderColor, style.borderColorSource)) {
+      style.borderColor = toBukkitColor(cstyle.borderColor);
+      style.borderColorSource = cstyle.borderColor;
+    }
+    if (!Objects.equals(cstyle.outlineColor, style.outlineColorSource)) {
+      style.outlineColor = toBukkitColor(cstyle.outlineColor);
+      style.outlineColorSource = cstyle.outlineColor;
+    }
 
     style.textShadowed = cstyle.textShadow;
     style.bold = cstyle.bold;
@@ -76,14 +130,23 @@ public class LayoutCall {
     style.outlineBlock = cstyle.outlineBlock;
   }
 
-  static LayoutBox createLayoutTree(ElementRenderObject object, RenderToLayoutMapper lookupMap) {
-    LayoutBox box;
+  // Layout nodes are kept on their render objects between layouts, only
+  // objects without one, or whose display type changed, get a new node.
+  // Reused nodes keep their measure caches
+  static LayoutBox updateLayoutTree(ElementRenderObject object) {
+    LayoutBox box = object.layoutNode instanceof LayoutBox existing ? existing : null;
     DisplayType display = object.computedStyleSet.display;
+    boolean flex = display == DisplayType.FLEX || display == DisplayType.INLINE_FLEX;
 
-    if (display == DisplayType.FLEX || display == DisplayType.INLINE_FLEX) {
-      box = new FlexLayoutBox(object.style, object.computedStyleSet);
-    } else {
-      box = new FlowLayoutBox(object.style, object.computedStyleSet);
+    if (box == null || (box instanceof FlexLayoutBox) != flex) {
+      if (flex) {
+        box = new FlexLayoutBox(object.style, object.computedStyleSet);
+      } else {
+        box = new FlowLayoutBox(object.style, object.computedStyleSet);
+      }
+
+      object.layoutNode = box;
+      object.markLayoutDirty();
     }
 
     box.position.set(object.position);
@@ -93,65 +156,48 @@ public class LayoutCall {
       box.size.set(object.size);
     }
 
-    lookupMap.add(box, object);
+    List<LayoutNode> nodes = box.getNodes();
+    nodes.clear();
 
     for (RenderObject childObject : object.getChildObjects()) {
-      LayoutNode node = createLayoutNode(childObject, lookupMap);
-      box.getNodes().add(node);
+      nodes.add(updateLayoutNode(childObject));
     }
 
     return box;
   }
 
-  static LayoutNode createLayoutNode(RenderObject object, RenderToLayoutMapper lookupMap) {
+  static LayoutNode updateLayoutNode(RenderObject object) {
     if (object instanceof ElementRenderObject ero) {
-      return createLayoutTree(ero, lookupMap);
+      return updateLayoutTree(ero);
     }
 
-    LayoutItem item = new LayoutItem();
-    item.domIndex = object.domIndex;
+    LayoutItem item;
 
-    item.position.set(object.position);
-    item.size.set(object.size);
-
-    lookupMap.add(item, object);
-
-    switch (object) {
-      case MeasureFunc f -> {
-        item.measureFunc = f;
-      }
-      case ItemRenderObject obj -> {
-        item.measureFunc = ITEM_MEASURE_FUNC;
-      }
-      default -> {
-        item.measureFunc = ZERO;
+    if (object.layoutNode instanceof LayoutItem existing) {
+      item = existing;
+    } else {
+      item = new LayoutItem();
+      object.layoutNode = item;
+      object.markLayoutDirty();
+
+      switch (object) {
+        case MeasureFunc f -> {
+          item.measureFunc = f;
+        }
+        case ItemRenderObject obj -> {
+          item.measureFunc = ITEM_MEASURE_FUNC;
+        }
+        default -> {
+          item.measureFunc = ZERO;
+        }
       }
     }
 
-    return item;
-  }
-
-  private static class RenderToLayoutMapper {
-    private LayoutNode[] layoutNodes;
-    private RenderObject[] renderObjects;
-    private int length = 0;
-
-    public RenderToLayoutMapper(int len) {
-      this.layoutNodes = new LayoutNode[len];
-      this.renderObjects = new RenderObject[len];
-    }
-
-    void add(LayoutNode node, RenderObject object) {
-      if (length >= layoutNodes.length) {
-        int nlen = layoutNodes.length * 2;
-        layoutNodes = ObjectArrays.grow(layoutNodes, nlen);
-        renderObjects = ObjectArrays.grow(renderObjects, nlen);
-      }
+    item.domIndex = object.domIndex;
 
-      layoutNodes[length] = node;
-      renderObjects[length] = object;
+    item.position.set(object.position);
+    item.size.set(object.size);
 
-      length++;
-    }
+    return item;
   }
 }
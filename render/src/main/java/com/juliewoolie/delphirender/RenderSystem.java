@@ -9,6 +9,7 @@ import com.juliewoolie.chimera.system.StyleNode;
 import com.juliewoolie.chimera.system.StyleObjectModel;
 import com.juliewoolie.delphidom.ChatElement;
 import com.juliewoolie.delphidom.DelphiCanvasElement;
+import com.juliewoolie.delphidom.DelphiDocument;
 import com.juliewoolie.delphidom.DelphiElement;
 import com.juliewoolie.delphidom.DelphiInputElement;
 import com.juliewoolie.delphidom.DelphiItemElement;
@@ -38,13 +39,13 @@ import com.juliewoolie.dom.event.MutationEvent;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import java.util.ArrayDeque;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.bukkit.World;
@@ -55,10 +56,6 @@ import org.joml.Vector2f;
 @Getter @Setter
 public class RenderSystem implements StyleUpdateCallbacks {
 
-  static final Comparator<Entry<DelphiNode, RenderObject>> HIGHEST_TO_LOWEST_DEPTH
-      = Comparator.<Entry<DelphiNode, RenderObject>, Float>comparing(e -> e.getValue().depth)
-      .reversed();
-
   static final float TOOLTIP_DEPTH_SCALE = 1.5f;
 
   final ExtendedView view;
@@ -69,10 +66,18 @@ public class RenderSystem implements StyleUpdateCallbacks {
   private FontMeasureCallback fontMetrics;
 
   private final List<Entity> entities = new ObjectArrayList<>();
+  private final EntityPool entityPool = new EntityPool(this);
+
+  // Entity updates skipped because the entity already had the value
+  @Setter(AccessLevel.NONE)
+  private long suppressedUpdates = 0;
 
   private final Map<DelphiNode, RenderObject> renderElements = new Object2ObjectOpenHashMap<>();
   private ElementRenderObject renderRoot = null;
 
+  @Getter(AccessLevel.NONE)
+  private final HitTestGrid hitTestGrid = new HitTestGrid();
+
   private ElementRenderObject activeTooltip = null;
   private long tooltipDelay = -1;
   private TooltipBehaviour tooltipBehaviour = TooltipBehaviour.CURSOR_STICKY;
@@ -116,6 +121,8 @@ public class RenderSystem implements StyleUpdateCallbacks {
     renderElements.clear();
     renderRoot = null;
     active = false;
+
+    hitTestGrid.invalidate();
   }
 
   public void spawn() {
@@ -123,11 +130,20 @@ public class RenderSystem implements StyleUpdateCallbacks {
       return;
     }
 
+    flushStyles();
+
     renderRoot.moveTo(new Vector2f(0, (float) view.getScreen().getHeight()));
     LayoutCall.nlayout(renderRoot, screen.getDimensions());
 
     renderRoot.killRecursive();
     renderRoot.spawnRecursive();
+
+    hitTestGrid.invalidate();
+  }
+
+  private void flushStyles() {
+    DelphiDocument doc = (DelphiDocument) view.getDocument();
+    doc.getStyles().flushStyles();
   }
 
   public void kill() {
@@ -136,6 +152,16 @@ public class RenderSystem implements StyleUpdateCallbacks {
     }
 
     entities.clear();
+    entityPool.clear();
+
+    // Render objects still reference the removed entities, so the next
+    // redraw has to spawn the whole tree again instead of only what changed
+    if (renderRoot != null) {
+      renderRoot.spawned = false;
+    }
+    if (activeTooltip != null) {
+      activeTooltip.spawned = false;
+    }
   }
 
   public void tick() {
@@ -143,14 +169,24 @@ public class RenderSystem implements StyleUpdateCallbacks {
       return;
     }
 
+    entityPool.tick();
+
+    // Apply all style changes made since the last tick before any layout
+    flushStyles();
+
+    // Anything queued may have moved, resized or hidden elements
+    if (!awaitingLayout.isEmpty() || !awaitingRedraw.isEmpty()) {
+      hitTestGrid.invalidate();
+    }
+
     while (!awaitingLayout.isEmpty()) {
       ElementRenderObject ero = awaitingLayout.poll();
-      LayoutCall.nlayout(ero, screen.getDimensions());
+      layout(ero);
     }
 
     while (!awaitingRedraw.isEmpty()) {
       ElementRenderObject ero = awaitingRedraw.poll();
-      ero.spawnRecursive();
+      ero.redrawDirty();
     }
 
     if (tooltipDelay != -1) {
@@ -167,6 +203,29 @@ public class RenderSystem implements StyleUpdateCallbacks {
     }
   }
 
+  private void layout(ElementRenderObject ero) {
+    Vector2f screenSize = screen.getDimensions();
+    ElementRenderObject target = ero;
+
+    // Layout boundaries are laid out on their own, unless their size
+    // changed, then the layout has to move up to their parent
+    while (target.parent != null) {
+      if (LayoutCall.relayoutBoundary(target, screenSize)) {
+        return;
+      }
+
+      target.parent.markLayoutDirty();
+      target = target.getLayoutRoot();
+    }
+
+    // Removed from the tree after being queued
+    if (target != renderRoot && target != activeTooltip) {
+      return;
+    }
+
+    LayoutCall.nlayout(target, screenSize);
+  }
+
   //
   // Layout updates and render object entity updates should only occur a
   // maximum of once per tick. This means, all changes made to the DOM tree
@@ -198,10 +257,25 @@ public class RenderSystem implements StyleUpdateCallbacks {
   }
 
   public void triggerRealign(DelphiNode node) {
+    RenderObject obj = getRenderElement(node);
+    if (obj != null) {
+      obj.markLayoutDirty();
+    }
+
     ElementRenderObject ero = findRelevantRoot(node);
     if (ero == null) {
       return;
     }
+
+    // Only the closest layout boundary has to be laid out again
+    if (obj != null) {
+      ElementRenderObject layoutRoot = obj.getLayoutRoot();
+
+      if (layoutRoot != null) {
+        ero = layoutRoot;
+      }
+    }
+
     if (awaitingLayout.contains(ero)) {
       return;
     }
@@ -210,6 +284,14 @@ public class RenderSystem implements StyleUpdateCallbacks {
   }
 
   public void triggerRedraw(DelphiNode node) {
+    RenderObject obj = getRenderElement(node);
+
+    if (obj instanceof ElementRenderObject er) {
+      er.markStyleRedraw();
+    } else if (obj != null) {
+      obj.markRedraw(RenderObject.REDRAW_CONTENT);
+    }
+
     ElementRenderObject ero = findRelevantRoot(node);
     if (ero == null) {
       return;
@@ -232,6 +314,8 @@ public class RenderSystem implements StyleUpdateCallbacks {
       return;
     }
 
+    hitTestGrid.invalidate();
+
     obj.killRecursive();
 
     ElementRenderObject parent = obj.parent;
@@ -255,14 +339,21 @@ public class RenderSystem implements StyleUpdateCallbacks {
   public RenderObject initRenderTree(DelphiNode node, float depthScale) {
     RenderObject obj;
 
-    StyleObjectModel styles = node.getDocument().getStyles();
-    StyleNode styleNode = styles.getStyleNode(node);
+    // Text is styled through its parent element's render object, so only
+    // elements need a style node
+    ComputedStyleSet styleSet = null;
 
-    if (styleNode == null) {
-      styleNode = styles.createNode(node);
+    if (!(node instanceof Text)) {
+      StyleObjectModel styles = node.getDocument().getStyles();
+      StyleNode styleNode = styles.getStyleNode(node);
+
+      if (styleNode == null) {
+        styleNode = styles.createNode(node);
+      }
+
+      styleSet = styleNode.getComputedSet();
     }
 
-    ComputedStyleSet styleSet = styleNode.getComputedSet();
     float depth = ((float) node.getDepth()) * MACRO_LAYER_DEPTH * depthScale;
     float next = (node.getDepth() + 1.0f) * MACRO_LAYER_DEPTH * depthScale;
 
@@ -342,10 +433,15 @@ public class RenderSystem implements StyleUpdateCallbacks {
       }
     }
 
+    if (obj instanceof ElementRenderObject er) {
+      LayoutCall.applyVisualStyle(styleSet, er.style);
+    }
+
     obj.depth = depth;
     obj.domIndex = node.getSiblingIndex();
 
     renderElements.put(node, obj);
+    hitTestGrid.invalidate();
 
     return obj;
   }
@@ -381,14 +477,17 @@ public class RenderSystem implements StyleUpdateCallbacks {
 
     DelphiNode domNode = (DelphiNode) styleNode.getDomNode();
 
+    // Only nodes with visual or content changes need their render style
+    // rederived. Has to happen before any realign, as the layout depends
+    // on it, bold making text wider for example
+    if (respawn && obj instanceof ElementRenderObject er) {
+      LayoutCall.applyVisualStyle(styleNode.getComputedSet(), er.style);
+    }
+
     if (changed(changes, DirtyBit.LAYOUT)) {
       triggerRealign(domNode);
       triggerRedraw(domNode);
     } else if (respawn) {
-      if (obj instanceof ElementRenderObject er) {
-        LayoutCall.applyVisualStyle(styleNode.getComputedSet(), er.style);
-      }
-
       triggerRedraw(domNode);
     }
   }
@@ -399,6 +498,9 @@ public class RenderSystem implements StyleUpdateCallbacks {
       return;
     }
 
+    // The canvas' measured size is cached, so the new size needs a
+    // realign to be picked up
+    triggerRealign(el);
     triggerRedraw(el);
   }
 
@@ -479,6 +581,8 @@ public class RenderSystem implements StyleUpdateCallbacks {
     if (renderRoot != null) {
       renderRoot.moveTo(new Vector2f(0, newHeight));
     }
+
+    hitTestGrid.invalidate();
   }
 
   public void setTooltip(ElementRenderObject ero, long delay, TooltipBehaviour b) {
@@ -496,6 +600,10 @@ public class RenderSystem implements StyleUpdateCallbacks {
     }
   }
 
+  public void updateSuppressed() {
+    suppressedUpdates++;
+  }
+
   public void removeEntity(Display entity) {
     entities.remove(entity);
   }
@@ -506,11 +614,6 @@ public class RenderSystem implements StyleUpdateCallbacks {
     view.handleEntityVisibility(display);
   }
 
-  private boolean contains(Vector2f cursor, Vector2f pos, Vector2f size) {
-    return cursor.x >= pos.x && cursor.x <= (pos.x + size.x)
-        && cursor.y <= pos.y && cursor.y >= (pos.y - size.y);
-  }
-
   boolean recursiveIsHidden(ElementRenderObject ero) {
     if (ero.isHidden()) {
       return true;
@@ -522,21 +625,28 @@ public class RenderSystem implements StyleUpdateCallbacks {
   }
 
   public DelphiElement findCursorContainingNode(Vector2f cursorScreen) {
-    return renderElements.entrySet()
-        .stream()
-        .filter(e -> e.getKey() instanceof DelphiElement)
-        .filter(e -> !e.getKey().hasFlag(NodeFlag.TOOLTIP))
-        .filter(e -> {
-          RenderObject ro = e.getValue();
-          return contains(cursorScreen, ro.position, ro.size);
-        })
-        .filter(ro -> {
-          ElementRenderObject ero = (ElementRenderObject) ro.getValue();
-          return !recursiveIsHidden(ero);
-        })
-        .min(HIGHEST_TO_LOWEST_DEPTH)
-        .map(e -> (DelphiElement) e.getKey())
-        .orElse(null);
+    if (!hitTestGrid.isValid()) {
+      rebuildHitTestGrid();
+    }
+
+    return hitTestGrid.find(cursorScreen);
+  }
+
+  private void rebuildHitTestGrid() {
+    hitTestGrid.clear(screen.getDimensions());
+
+    for (Entry<DelphiNode, RenderObject> e : renderElements.entrySet()) {
+      if (!(e.getKey() instanceof DelphiElement el) || el.hasFlag(NodeFlag.TOOLTIP)) {
+        continue;
+      }
+
+      ElementRenderObject ero = (ElementRenderObject) e.getValue();
+      if (recursiveIsHidden(ero)) {
+        continue;
+      }
+
+      hitTestGrid.add(el, ero.position, ero.size, ero.depth);
+    }
   }
 
   class TooltipListener implements EventListener.Typed<MouseEvent> {
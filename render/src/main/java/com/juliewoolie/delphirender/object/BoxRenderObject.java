@@ -11,8 +11,6 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.Objects;
 import org.bukkit.Color;
-import org.bukkit.Location;
-import org.bukkit.World;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.BlockDisplay;
 import org.bukkit.entity.Display;
@@ -33,20 +31,33 @@ public class BoxRenderObject extends SingleEntityRenderObject<Display> {
 
   private final Vector3d blockSize = new Vector3d(0.0f);
 
+  private Color appliedColor;
+  private BlockData appliedBlock;
+
   public BoxRenderObject(RenderSystem system) {
     super(system);
   }
 
   @Override
-  protected Display spawnEntity(World w, Location l) {
-    if (blockData != null) {
-      return w.spawn(l, BlockDisplay.class);
-    }
+  protected void clearAppliedState() {
+    super.clearAppliedState();
+    appliedColor = null;
+    appliedBlock = null;
+  }
 
-    return w.spawn(l, TextDisplay.class, td -> {
+  @Override
+  protected Class<? extends Display> entityClass() {
+    return blockData != null ? BlockDisplay.class : TextDisplay.class;
+  }
+
+  @Override
+  protected void initEntity(Display entity) {
+    super.initEntity(entity);
+
+    if (entity instanceof TextDisplay td) {
       td.text(Consts.EMPTY_CONTENT);
       td.setTextOpacity(Consts.EMPTY_TEXT_OPACITY);
-    });
+    }
   }
 
   @Override
@@ -55,7 +66,12 @@ public class BoxRenderObject extends SingleEntityRenderObject<Display> {
     Vector3f offset = trans.getTranslation();
 
     if (entity instanceof TextDisplay td) {
-      td.setBackgroundColor(Objects.requireNonNullElse(color, NIL_COLOR));
+      Color bg = Objects.requireNonNullElse(color, NIL_COLOR);
+
+      if (differs(appliedColor, bg)) {
+        td.setBackgroundColor(bg);
+        appliedColor = bg;
+      }
 
       scale.x = EMPTY_TD_BLOCK_SIZE_X * size.x;
       scale.y = EMPTY_TD_BLOCK_SIZE_Y * size.y;
@@ -66,7 +82,10 @@ public class BoxRenderObject extends SingleEntityRenderObject<Display> {
     }
 
     BlockDisplay bd = (BlockDisplay) entity;
-    bd.setBlock(blockData);
+    if (differs(appliedBlock, blockData)) {
+      bd.setBlock(blockData);
+      appliedBlock = blockData;
+    }
 
     scale.z = 0.0f;
 
@@ -7,6 +7,7 @@ import com.juliewoolie.delphirender.FullStyle;
 import com.juliewoolie.delphirender.RenderSystem;
 import com.juliewoolie.dom.style.DisplayType;
 import com.juliewoolie.dom.style.Visibility;
+import com.juliewoolie.nlayout.FlexLayoutBox;
 import com.juliewoolie.nlayout.LayoutBox;
 import java.util.ArrayList;
 import java.util.List;
@@ -25,6 +26,7 @@ public class ElementRenderObject extends RenderObject {
 
   public final ComputedStyleSet computedStyleSet;
   public boolean spawned = false;
+  public boolean childNeedsRedraw = false;
 
   public final BoxRenderObject[] boxes = new BoxRenderObject[BOXES];
 
@@ -66,11 +68,29 @@ public class ElementRenderObject extends RenderObject {
     super.moveTo(x, y);
   }
 
+  @Override
+  public boolean isLayoutBoundary() {
+    if (parent == null || !(layoutNode instanceof LayoutBox box)) {
+      return false;
+    }
+
+    // Flex containers resize their items, so an item's size doesn't only
+    // depend on its own style
+    if (parent.layoutNode instanceof FlexLayoutBox) {
+      return false;
+    }
+
+    return box.isLayoutBoundary();
+  }
+
   public boolean isHidden() {
     return style.display == DisplayType.NONE || style.visibility != Visibility.VISIBLE;
   }
 
   public void spawnRecursive() {
+    redrawBits = 0;
+    childNeedsRedraw = false;
+
     if (isHidden()) {
       killRecursive();
       return;
@@ -83,6 +103,72 @@ public class ElementRenderObject extends RenderObject {
     }
   }
 
+  // Only visits the branches with changed objects, everything else keeps
+  // its entities as they are
+  @Override
+  public void redrawDirty() {
+    if (redrawBits == 0 && !childNeedsRedraw) {
+      return;
+    }
+
+    // Hidden elements have been killed, so everything under them has to
+    // be spawned again
+    if (isHidden() || !spawned) {
+      spawnRecursive();
+      return;
+    }
+
+    // Moving already teleported the boxes
+    if (redrawBits != 0 && redrawBits != REDRAW_POSITION) {
+      spawn();
+    }
+
+    redrawBits = 0;
+
+    if (!childNeedsRedraw) {
+      return;
+    }
+
+    childNeedsRedraw = false;
+
+    for (int i = 0; i < childObjects.size(); i++) {
+      childObjects.get(i).redrawDirty();
+    }
+  }
+
+  // Marks this element and its content for a redraw. Descendants with a
+  // border or outline take their background color from the closest
+  // ancestor with one, so those are redrawn too
+  public void markStyleRedraw() {
+    markRedraw(REDRAW_VISUAL | REDRAW_CONTENT);
+
+    for (int i = 0; i < childObjects.size(); i++) {
+      RenderObject child = childObjects.get(i);
+
+      if (child instanceof ElementRenderObject ero) {
+        ero.markBackgroundDependents();
+      } else {
+        child.markRedraw(REDRAW_CONTENT);
+      }
+    }
+  }
+
+  private void markBackgroundDependents() {
+    if (style.backgroundColor.getAlpha() > 0) {
+      return;
+    }
+
+    if (style.outline.isNotZero() || style.border.isNotZero()) {
+      markRedraw(REDRAW_VISUAL);
+    }
+
+    for (int i = 0; i < childObjects.size(); i++) {
+      if (childObjects.get(i) instanceof ElementRenderObject ero) {
+        ero.markBackgroundDependents();
+      }
+    }
+  }
+
   public void configureBoxes() {
     BoxRenderObject outline = boxes[OUTLINE];
     BoxRenderObject border = boxes[BORDER];
@@ -205,6 +291,7 @@ public class ElementRenderObject extends RenderObject {
   public void addChild(int i, RenderObject obj) {
     childObjects.add(i, obj);
     obj.parent = this;
+    markLayoutDirty();
   }
 
   public boolean removeChild(RenderObject obj) {
@@ -220,6 +307,22 @@ public class ElementRenderObject extends RenderObject {
   public void removeChild(int idx) {
     RenderObject obj = childObjects.remove(idx);
     obj.parent = null;
+    markLayoutDirty();
+  }
+
+  @Override
+  public void markLayoutDirty() {
+    // Content measurements depend on this element's style, font size and
+    // text decorations for example
+    for (int i = 0; i < childObjects.size(); i++) {
+      RenderObject child = childObjects.get(i);
+
+      if (!(child instanceof ElementRenderObject) && child.layoutNode != null) {
+        child.layoutNode.markDirty();
+      }
+    }
+
+    super.markLayoutDirty();
   }
 
   public void killRecursive() {
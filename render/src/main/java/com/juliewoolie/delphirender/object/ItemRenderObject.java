@@ -3,8 +3,6 @@ package com.juliewoolie.delphirender.object;
 import static com.juliewoolie.delphirender.Consts.ITEM_SPRITE_SIZE;
 
 import com.juliewoolie.delphirender.RenderSystem;
-import org.bukkit.Location;
-import org.bukkit.World;
 import org.bukkit.entity.ItemDisplay;
 import org.bukkit.entity.ItemDisplay.ItemDisplayTransform;
 import org.bukkit.inventory.ItemStack;
@@ -21,11 +19,23 @@ public class ItemRenderObject extends SingleEntityRenderObject<ItemDisplay> {
   public static final float ROTATION = (float) Math.toRadians(180);
 
   public ItemStack item;
+  private ItemStack appliedItem;
+
+  // A pooled entity may still show its previous item, so a null item has
+  // to be applied once as well
+  private boolean itemApplied;
 
   public ItemRenderObject(RenderSystem system) {
     super(system);
   }
 
+  @Override
+  protected void clearAppliedState() {
+    super.clearAppliedState();
+    appliedItem = null;
+    itemApplied = false;
+  }
+
   @Override
   protected void configure(ItemDisplay entity, Transformation trans) {
     Vector3f scale = trans.getScale();
@@ -56,14 +66,24 @@ public class ItemRenderObject extends SingleEntityRenderObject<ItemDisplay> {
     offset.y -= size.y * Y_OFF_MODIFIER;
 //    offset.z += Z_OFF;
 
-    entity.setItemStack(item);
+    if (!itemApplied || differs(appliedItem, item)) {
+      entity.setItemStack(item);
+      itemApplied = true;
+
+      // Item stacks are mutable, the element may change this instance
+      appliedItem = item == null ? null : item.clone();
+    }
+  }
+
+  @Override
+  protected Class<ItemDisplay> entityClass() {
+    return ItemDisplay.class;
   }
 
   @Override
-  protected ItemDisplay spawnEntity(World w, Location l) {
-    return w.spawn(l, ItemDisplay.class, id -> {
-      id.setItemDisplayTransform(ItemDisplayTransform.GUI);
-    });
+  protected void initEntity(ItemDisplay entity) {
+    super.initEntity(entity);
+    entity.setItemDisplayTransform(ItemDisplayTransform.GUI);
   }
 }
 
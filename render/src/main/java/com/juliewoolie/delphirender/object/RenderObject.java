@@ -5,6 +5,7 @@ import com.juliewoolie.delphirender.FullStyle;
 import com.juliewoolie.delphirender.RenderScreen;
 import com.juliewoolie.delphirender.RenderSystem;
 import com.juliewoolie.delphirender.math.Rectangle;
+import com.juliewoolie.nlayout.LayoutNode;
 import org.bukkit.Location;
 import org.bukkit.entity.Display;
 import org.bukkit.entity.Display.Brightness;
@@ -20,6 +21,11 @@ public abstract class RenderObject {
   public static final Brightness BRIGHTNESS = new Brightness(0, 15);
   public static final boolean SEE_THROUGH = false;
 
+  public static final int REDRAW_POSITION = 0x1;
+  public static final int REDRAW_SIZE = 0x2;
+  public static final int REDRAW_VISUAL = 0x4;
+  public static final int REDRAW_CONTENT = 0x8;
+
   public final Vector2f position = new Vector2f(0);
   public final Vector2f size = new Vector2f(0);
 
@@ -31,6 +37,13 @@ public abstract class RenderObject {
   public float depth = 0.0f;
   public int domIndex = 0;
 
+  // Layout node of this object, kept between layouts so unchanged parts
+  // of the tree can reuse their last measurements
+  public LayoutNode layoutNode;
+
+  // Changes made since this object's entities were last updated
+  public int redrawBits = 0;
+
   public RenderObject(RenderSystem system) {
     this.system = system;
     this.screen = system.getScreen();
@@ -63,6 +76,41 @@ public abstract class RenderObject {
     out.set(pos.x, pos.y, pos.z);
   }
 
+  // Marks this object and its parents as needing to be measured again on
+  // the next layout. Stops at the first layout boundary above this
+  // object, as changes inside a boundary can't affect anything outside it
+  public void markLayoutDirty() {
+    for (RenderObject obj = this; obj != null; obj = obj.parent) {
+      if (obj.layoutNode != null) {
+        obj.layoutNode.markDirty();
+      }
+
+      if (obj != this && obj.isLayoutBoundary()) {
+        return;
+      }
+    }
+  }
+
+  public boolean isLayoutBoundary() {
+    return false;
+  }
+
+  // Gets the object that has to be laid out again when this object
+  // changes, the closest layout boundary above it or the root object
+  public ElementRenderObject getLayoutRoot() {
+    ElementRenderObject obj = parent;
+
+    if (obj == null) {
+      return this instanceof ElementRenderObject ero ? ero : null;
+    }
+
+    while (obj.parent != null && !obj.isLayoutBoundary()) {
+      obj = obj.parent;
+    }
+
+    return obj;
+  }
+
   public float getZIndexDepth() {
     if (parent != null) {
       return parent.style.zindex * Consts.MACRO_LAYER_DEPTH;
@@ -104,5 +152,27 @@ public abstract class RenderObject {
 
   public void spawnRecursive() {
     spawn();
+    redrawBits = 0;
+  }
+
+  // Flags this object as needing a redraw, and its parents as having a
+  // child that needs one, so the next redraw can find it
+  public void markRedraw(int bits) {
+    redrawBits |= bits;
+
+    for (ElementRenderObject p = parent; p != null && !p.childNeedsRedraw; p = p.parent) {
+      p.childNeedsRedraw = true;
+    }
+  }
+
+  // Updates this object's entities if anything changed since the last
+  // time they were
+  public void redrawDirty() {
+    if (redrawBits == 0) {
+      return;
+    }
+
+    spawn();
+    redrawBits = 0;
   }
 }
@@ -1,8 +1,8 @@
 package com.juliewoolie.delphirender.object;
 
 import com.juliewoolie.delphirender.RenderSystem;
+import java.util.Objects;
 import org.bukkit.Location;
-import org.bukkit.World;
 import org.bukkit.entity.Display;
 import org.bukkit.util.Transformation;
 import org.joml.Vector3f;
@@ -11,6 +11,15 @@ public abstract class SingleEntityRenderObject<T extends Display> extends Render
 
   public T entity;
 
+  // Type the entity was checked out of the pool as, it's parked under the
+  // same type when killed
+  private Class<? extends T> entityType;
+
+  // Last location and transformation sent to the entity. Every update is
+  // sent to all viewers, so unchanged values are skipped
+  private Location appliedLocation;
+  private Transformation appliedTransform;
+
   public SingleEntityRenderObject(RenderSystem system) {
     super(system);
   }
@@ -23,15 +32,59 @@ public abstract class SingleEntityRenderObject<T extends Display> extends Render
       return;
     }
 
-    Location loc = getLocation();
-    entity.teleport(loc);
+    teleport(getLocation());
+  }
+
+  private void teleport(Location location) {
+    if (location.equals(appliedLocation)) {
+      system.updateSuppressed();
+      return;
+    }
+
+    entity.teleport(location);
+    appliedLocation = location;
+  }
+
+  // Forgets the state applied to the entity, called when a new entity is
+  // spawned. Subclasses tracking more of the entity's state clear it here
+  protected void clearAppliedState() {
+    appliedLocation = null;
+    appliedTransform = null;
+  }
+
+  // Compares a value to the one last applied, counting the skipped
+  // update if they're the same
+  protected boolean differs(Object applied, Object value) {
+    if (Objects.equals(applied, value)) {
+      system.updateSuppressed();
+      return false;
+    }
+
+    return true;
   }
 
   boolean isSpawned() {
     return entity != null && !entity.isDead();
   }
 
-  protected abstract T spawnEntity(World w, Location l);
+  @Override
+  public void redrawDirty() {
+    // Moving already teleported the entity
+    if (redrawBits == REDRAW_POSITION && isSpawned()) {
+      redrawBits = 0;
+      return;
+    }
+
+    super.redrawDirty();
+  }
+
+  protected abstract Class<? extends T> entityClass();
+
+  // Sets up a newly spawned entity. Pooled entities are only reused by
+  // objects of the same class, so this state is kept when they're reused
+  protected void initEntity(T entity) {
+    configureEntity(entity);
+  }
 
   protected void configure(T entity, Transformation trans) {
 
@@ -42,11 +95,13 @@ public abstract class SingleEntityRenderObject<T extends Display> extends Render
     Location location = getLocation();
 
     if (!isSpawned()) {
-      entity = spawnEntity(location.getWorld(), location);
-      system.addEntity(entity);
-      configureEntity(entity);
+      entityType = entityClass();
+      entity = system.getEntityPool().checkout(getClass(), entityType, location, this::initEntity);
+
+      clearAppliedState();
+      appliedLocation = location;
     } else {
-      entity.teleport(location);
+      teleport(location);
     }
 
     Transformation trans = newTransform();
@@ -87,7 +142,10 @@ public abstract class SingleEntityRenderObject<T extends Display> extends Render
     configure(entity, trans);
     screen.project(trans);
 
-    entity.setTransformation(trans);
+    if (differs(appliedTransform, trans)) {
+      entity.setTransformation(trans);
+      appliedTransform = trans;
+    }
   }
 
   @Override
@@ -96,9 +154,9 @@ public abstract class SingleEntityRenderObject<T extends Display> extends Render
       return;
     }
 
-    system.removeEntity(entity);
-    entity.remove();
+    system.getEntityPool().park(getClass(), entityType, entity);
 
     entity = null;
+    entityType = null;
   }
 }
@@ -15,8 +15,6 @@ import com.juliewoolie.nlayout.MeasureFunc;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextDecoration;
 import net.kyori.adventure.text.format.TextDecoration.State;
-import org.bukkit.Location;
-import org.bukkit.World;
 import org.bukkit.entity.TextDisplay;
 import org.bukkit.util.Transformation;
 import org.joml.Vector2f;
@@ -28,27 +26,46 @@ public abstract class TextRenderObject
 {
   public static final float GLOBAL_FONT_SIZE = 0.5f;
 
+  private Component appliedText;
+  private Boolean appliedShadow;
+
   public TextRenderObject(RenderSystem system) {
     super(system);
   }
 
   @Override
-  protected TextDisplay spawnEntity(World w, Location l) {
-    return w.spawn(l, TextDisplay.class, txt -> {
-      txt.setBackgroundColor(NIL_COLOR);
-      txt.setLineWidth(Integer.MAX_VALUE);
-    });
+  protected void clearAppliedState() {
+    super.clearAppliedState();
+    appliedText = null;
+    appliedShadow = null;
+  }
+
+  @Override
+  protected Class<TextDisplay> entityClass() {
+    return TextDisplay.class;
+  }
+
+  @Override
+  protected void initEntity(TextDisplay entity) {
+    super.initEntity(entity);
+    entity.setBackgroundColor(NIL_COLOR);
+    entity.setLineWidth(Integer.MAX_VALUE);
   }
 
   @Override
   protected void configure(TextDisplay entity, Transformation trans) {
+    // Line width is set when the entity is spawned and never changes
     Component text = text();
-    entity.text(text);
-    entity.setLineWidth(Integer.MAX_VALUE);
+
+    if (differs(appliedText, text)) {
+      entity.text(text);
+      appliedText = text;
+    }
 
     FullStyle style = getParentStyle();
-    if (style != null) {
+    if (style != null && differs(appliedShadow, style.textShadowed)) {
       entity.setShadowed(style.textShadowed);
+      appliedShadow = style.textShadowed;
     }
 
     configureTextSize(this, text, trans.getScale());